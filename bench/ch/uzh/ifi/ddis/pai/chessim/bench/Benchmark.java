@@ -0,0 +1,27 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.bench;
+
+/**
+ * One operation of a benchmark, run many times by the {@link BenchmarkRunner}.
+ * The result of the operation must be passed to the blackhole, so the JIT compiler can not remove the operation.
+ */
+@FunctionalInterface
+public interface Benchmark {
+
+	/**
+	 * Runs the operation once.
+	 * @param blackhole consumes the result
+	 */
+	public void run(Blackhole blackhole);
+}
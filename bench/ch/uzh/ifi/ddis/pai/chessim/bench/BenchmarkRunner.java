@@ -0,0 +1,280 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Runs benchmarks the way JMH does: every benchmark runs in its own JVM (fork), first for some warmup iterations
+ * which are not counted, then for the measured iterations. An iteration runs the operation in batches until its time is up.
+ * Reported are the time per operation and the memory allocated per operation (as counted by the JVM for the thread),
+ * with the mean and the standard deviation over all measured iterations of all forks.
+ *
+ * Options: -wi warmup iterations (default 5), -i measured iterations (default 5),
+ * -r time per iteration in ms (default 1000), -f forks (default 1, 0 runs in this JVM),
+ * and a regular expression selecting the benchmarks by name (default all).
+ */
+public class BenchmarkRunner {
+
+	// Internal option, runs one benchmark in a fork
+	private static final String CHILD_OPTION = "-child";
+	// Prefix of the lines by which a fork reports a measured iteration
+	private static final String ITERATION_PREFIX = "ITERATION ";
+	// The clock is read after batches of operations taking at least this time (ns)
+	private static final long MIN_BATCH_NANOS = 100000;
+
+	private final Class<?> mainClass;
+	private int warmupIterations = 5;
+	private int measurementIterations = 5;
+	private long iterationMillis = 1000;
+	private int forks = 1;
+	private Pattern filter = Pattern.compile(".*");
+	// Name of the benchmark to run if this JVM is a fork, null otherwise
+	private String child;
+
+	/**
+	 * @param mainClass the class whose main method creates this runner, it is started in the forks
+	 * @param args the options
+	 */
+	public BenchmarkRunner(Class<?> mainClass, String[] args){
+		this.mainClass = mainClass;
+		for(int i = 0; i < args.length; i++){
+			String option = args[i];
+			if(option.startsWith("-") && i + 1 == args.length){
+				throw new IllegalArgumentException("Missing value of " + option);
+			}
+			switch(option){
+			case "-wi":
+				warmupIterations = Integer.parseInt(args[++i]);
+				break;
+			case "-i":
+				measurementIterations = Integer.parseInt(args[++i]);
+				break;
+			case "-r":
+				iterationMillis = Long.parseLong(args[++i]);
+				break;
+			case "-f":
+				forks = Integer.parseInt(args[++i]);
+				break;
+			case CHILD_OPTION:
+				child = args[++i];
+				break;
+			default:
+				if(option.startsWith("-")){
+					throw new IllegalArgumentException("Unknown option " + option);
+				}
+				filter = Pattern.compile(option);
+			}
+		}
+		if(warmupIterations < 0 || measurementIterations < 1 || iterationMillis < 1 || forks < 0){
+			throw new IllegalArgumentException("Invalid options");
+		}
+	}
+
+	/**
+	 * Runs the selected benchmarks and prints the results.
+	 * @param benchmarks the benchmarks by name, in the order they are run
+	 * @throws IOException if a fork can not be started
+	 * @throws InterruptedException
+	 */
+	public void run(Map<String, Benchmark> benchmarks) throws IOException, InterruptedException{
+		if(child != null){
+			Benchmark benchmark = benchmarks.get(child);
+			if(benchmark == null){
+				throw new IllegalArgumentException("Unknown benchmark " + child);
+			}
+			measure(benchmark, null);
+			return;
+		}
+		if(allocatedBytes() < 0){
+			System.out.println("# Allocations are not counted by this JVM");
+		}
+		List<String> names = new ArrayList<>();
+		List<List<double[]>> results = new ArrayList<>();
+		for(Map.Entry<String, Benchmark> entry : benchmarks.entrySet()){
+			String name = entry.getKey();
+			if(!filter.matcher(name).find()){
+				continue;
+			}
+			System.out.println("# Benchmark: " + name);
+			List<double[]> iterations = new ArrayList<>();
+			if(forks == 0){
+				measure(entry.getValue(), iterations);
+			}
+			for(int fork = 1; fork <= forks; fork++){
+				System.out.println("# Fork: " + fork + " of " + forks);
+				fork(name, iterations);
+			}
+			names.add(name);
+			results.add(iterations);
+		}
+		printSummary(names, results);
+	}
+
+	/**
+	 * Runs the iterations of a benchmark in this JVM.
+	 * @param benchmark
+	 * @param iterations receives time (ns) and allocated bytes per operation of the measured iterations,
+	 * null to print them for the parent JVM
+	 */
+	private void measure(Benchmark benchmark, List<double[]> iterations){
+		Blackhole blackhole = new Blackhole();
+		// Operations between two reads of the clock
+		long batch = 1;
+		long start = System.nanoTime();
+		benchmark.run(blackhole);
+		while(System.nanoTime() - start < MIN_BATCH_NANOS && batch < Integer.MAX_VALUE){
+			batch *= 2;
+			start = System.nanoTime();
+			for(long i = 0; i < batch; i++){
+				benchmark.run(blackhole);
+			}
+		}
+		for(int i = 1; i <= warmupIterations + measurementIterations; i++){
+			boolean warmup = i <= warmupIterations;
+			double[] result = iteration(benchmark, blackhole, batch);
+			System.out.println(String.format(Locale.ROOT, "# %s iteration %d: %.3f ns/op, %.1f B/op",
+					warmup ? "Warmup" : "Measurement", warmup ? i : i - warmupIterations, result[0], result[1]));
+			if(!warmup){
+				if(iterations != null){
+					iterations.add(result);
+				}else{
+					System.out.println(ITERATION_PREFIX + result[0] + " " + result[1]);
+				}
+			}
+		}
+	}
+
+	private double[] iteration(Benchmark benchmark, Blackhole blackhole, long batch){
+		long operations = 0;
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		long end = start + iterationMillis * 1000000;
+		long now;
+		do{
+			for(long i = 0; i < batch; i++){
+				benchmark.run(blackhole);
+			}
+			operations += batch;
+			now = System.nanoTime();
+		}while(now < end);
+		long allocatedAfter = allocatedBytes();
+		double bytes = allocatedBefore < 0 ? Double.NaN : (double) (allocatedAfter - allocatedBefore) / operations;
+		return new double[]{(double) (now - start) / operations, bytes};
+	}
+
+	/**
+	 * Runs a benchmark in a new JVM with the same class path and JVM options.
+	 * @param name
+	 * @param iterations receives the measured iterations of the fork
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private void fork(String name, List<double[]> iterations) throws IOException, InterruptedException{
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(mainClass.getName());
+		command.add("-wi");
+		command.add(String.valueOf(warmupIterations));
+		command.add("-i");
+		command.add(String.valueOf(measurementIterations));
+		command.add("-r");
+		command.add(String.valueOf(iterationMillis));
+		command.add(CHILD_OPTION);
+		command.add(name);
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		try(BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))){
+			String line;
+			while((line = in.readLine()) != null){
+				if(line.startsWith(ITERATION_PREFIX)){
+					String[] values = line.substring(ITERATION_PREFIX.length()).split(" ");
+					iterations.add(new double[]{Double.parseDouble(values[0]), Double.parseDouble(values[1])});
+				}else{
+					System.out.println(line);
+				}
+			}
+		}
+		int exitCode = process.waitFor();
+		if(exitCode != 0){
+			throw new IllegalStateException("The fork of " + name + " failed with exit code " + exitCode);
+		}
+	}
+
+	private void printSummary(List<String> names, List<List<double[]>> results){
+		int width = "Benchmark".length();
+		for(String name : names){
+			width = Math.max(width, name.length());
+		}
+		String format = "%-" + width + "s %5s %14s %12s %14s %14s%n";
+		System.out.println();
+		System.out.printf(Locale.ROOT, format, "Benchmark", "Cnt", "Score (ns/op)", "StdDev", "Alloc (B/op)", "Alloc (MB/s)");
+		for(int i = 0; i < names.size(); i++){
+			List<double[]> iterations = results.get(i);
+			double time = mean(iterations, 0);
+			double bytes = mean(iterations, 1);
+			double rate = bytes / time * 1e9 / (1024 * 1024);
+			System.out.printf(Locale.ROOT, format, names.get(i), iterations.size(),
+					String.format(Locale.ROOT, "%.3f", time),
+					String.format(Locale.ROOT, "+- %.3f", standardDeviation(iterations, 0, time)),
+					String.format(Locale.ROOT, "%.1f", bytes),
+					String.format(Locale.ROOT, "%.1f", rate));
+		}
+	}
+
+	private static double mean(List<double[]> iterations, int column){
+		double sum = 0;
+		for(double[] iteration : iterations){
+			sum += iteration[column];
+		}
+		return sum / iterations.size();
+	}
+
+	private static double standardDeviation(List<double[]> iterations, int column, double mean){
+		if(iterations.size() < 2){
+			return Double.NaN;
+		}
+		double sum = 0;
+		for(double[] iteration : iterations){
+			sum += (iteration[column] - mean) * (iteration[column] - mean);
+		}
+		return Math.sqrt(sum / (iterations.size() - 1));
+	}
+
+	/**
+	 * The bytes allocated by the current thread so far.
+	 * @return -1 if the JVM does not count them
+	 */
+	private static long allocatedBytes(){
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean){
+			com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+			if(counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled()){
+				return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+}
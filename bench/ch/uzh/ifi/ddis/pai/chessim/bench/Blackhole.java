@@ -0,0 +1,54 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.bench;
+
+/**
+ * Consumes results of benchmark operations, so the JIT compiler can not prove them unused.
+ * Consuming neither allocates nor writes to shared memory: the result is compared with volatile values
+ * the compiler can not know, and stored only if it matches them, which never happens.
+ */
+public final class Blackhole {
+
+	private volatile Object marker = new Object();
+	private volatile long first = 1;
+	private volatile long second = 2;
+
+	// Only written if a result matches the markers
+	private Object object;
+	private long value;
+
+	/**
+	 * @param result
+	 */
+	public void consume(Object result){
+		if(result == marker){
+			object = result;
+		}
+	}
+
+	/**
+	 * @param result
+	 */
+	public void consume(long result){
+		if(result == first & result == second){
+			value = result;
+		}
+	}
+
+	/**
+	 * @param result
+	 */
+	public void consume(boolean result){
+		consume(result ? 1L : 0L);
+	}
+}
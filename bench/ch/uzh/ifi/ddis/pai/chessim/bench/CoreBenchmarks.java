@@ -0,0 +1,109 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.bench;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
+import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.PawnChessWinner;
+import ch.uzh.ifi.ddis.pai.chessim.bench.ReferencePositions.Position;
+import students.chetelatmarcalain.game.SearchPosition;
+import students.chetelatmarcalain.search.Evaluation;
+import students.chetelatmarcalain.search.Searcher;
+import students.chetelatmarcalain.search.TranspositionTable;
+
+/**
+ * Benchmarks of the game core and of the search of the bundled agent.
+ * Every operation runs on the reference positions in turn, see {@link ReferencePositions}.
+ * Run with the class path of the compiled sources, see {@link BenchmarkRunner} for the options.
+ */
+public class CoreBenchmarks {
+
+	// Level of the fixed depth search, the one of ChetelatMarcAlain.minimax
+	private static final int SEARCH_LEVEL = 4;
+
+	// Transposition table of the fixed depth search, cleared before every search
+	private static final int TABLE_MEGABYTES = 1;
+
+	/**
+	 * @param args see {@link BenchmarkRunner}
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception{
+		new BenchmarkRunner(CoreBenchmarks.class, args).run(benchmarks());
+	}
+
+	/**
+	 * @return the benchmarks by name
+	 */
+	public static Map<String, Benchmark> benchmarks(){
+		List<Position> positions = ReferencePositions.create();
+		Map<String, Benchmark> benchmarks = new LinkedHashMap<>();
+		benchmarks.put("Board.moveFigure", cycle(positions,
+				position -> blackhole -> blackhole.consume(position.board.moveFigure(position.move.from, position.move.to))));
+		benchmarks.put("Board.removeFigure", cycle(positions,
+				position -> blackhole -> blackhole.consume(position.board.removeFigure(position.move.from))));
+		benchmarks.put("Board.figures(Color)", cycle(positions,
+				position -> blackhole -> blackhole.consume(position.board.figures(position.nextMover))));
+		benchmarks.put("Pawn.possibleMoves", cycle(positions, position -> {
+			Figure pawn = position.board.figureAt(position.move.from);
+			return blackhole -> blackhole.consume(pawn.possibleMoves(position.board));
+		}));
+		PawnChessWinner rules = new PawnChessWinner();
+		benchmarks.put("PawnChessWinner.winner", cycle(positions,
+				position -> blackhole -> blackhole.consume(rules.winner(position.board, position.history, position.nextMover))));
+		Evaluation evaluation = new Evaluation();
+		benchmarks.put("Evaluation.scoreCalculation", cycle(positions, position -> {
+			SearchPosition searchPosition = new SearchPosition(position.board);
+			return blackhole -> blackhole.consume(evaluation.scoreCalculation(searchPosition, position.nextMover));
+		}));
+		TranspositionTable table = new TranspositionTable(TABLE_MEGABYTES);
+		Searcher searcher = new Searcher(table);
+		benchmarks.put("Searcher.minimax(level " + SEARCH_LEVEL + ")", cycle(positions, position -> blackhole -> {
+			// Every search starts from the same state, so the work does not depend on the searches before
+			table.clear();
+			searcher.start(Long.MAX_VALUE);
+			blackhole.consume(searcher.search(new SearchPosition(position.board), 0, SEARCH_LEVEL, position.nextMover,
+					Integer.MIN_VALUE, Integer.MAX_VALUE));
+		}));
+		// Part of every fixed depth search above
+		benchmarks.put("TranspositionTable.clear", blackhole -> {
+			table.clear();
+			blackhole.consume(table);
+		});
+		return benchmarks;
+	}
+
+	/**
+	 * A benchmark running an operation on the reference positions in turn.
+	 * @param positions
+	 * @param operation creates the operation on a position
+	 * @return
+	 */
+	private static Benchmark cycle(List<Position> positions, Function<Position, Benchmark> operation){
+		List<Benchmark> operations = new ArrayList<>();
+		for(Position position : positions){
+			operations.add(operation.apply(position));
+		}
+		Benchmark[] cycle = operations.toArray(new Benchmark[operations.size()]);
+		int[] next = new int[1];
+		return blackhole -> {
+			cycle[next[0]].run(blackhole);
+			next[0] = next[0] + 1 == cycle.length ? 0 : next[0] + 1;
+		};
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
+import ch.uzh.ifi.ddis.pai.chessim.game.History;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.PawnChessWinner;
+import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.RandomMoverPawnGame;
+
+/**
+ * The positions the benchmarks run on: the start position of the 8x8 pawn game and positions reached from it
+ * by random moves with fixed seeds, from the opening to the late middle game.
+ * The positions are the same in every run, so the numbers of different runs can be compared.
+ */
+public final class ReferencePositions {
+
+	// Positions after 0, PLIES_STEP, 2 * PLIES_STEP, ... random plies
+	private static final int POSITIONS = 8;
+	private static final int PLIES_STEP = 6;
+
+	/**
+	 * A reference position with a move of the next mover which does not capture.
+	 */
+	public static final class Position {
+
+		public final Board board;
+		public final History history;
+		public final Color nextMover;
+		public final Move move;
+
+		Position(Board board, History history, Color nextMover, Move move){
+			this.board = board;
+			this.history = history;
+			this.nextMover = nextMover;
+			this.move = move;
+		}
+	}
+
+	private ReferencePositions(){
+	}
+
+	/**
+	 * @return the reference positions
+	 */
+	public static List<Position> create(){
+		PawnChessWinner rules = new PawnChessWinner();
+		List<Position> positions = new ArrayList<>();
+		for(int seed = 0; positions.size() < POSITIONS; seed++){
+			Random random = new Random(seed);
+			Board board = RandomMoverPawnGame.createNewBoard();
+			History history = new History();
+			Color nextMover = Color.WHITE;
+			int plies = positions.size() * PLIES_STEP;
+			for(int ply = 0; ply < plies && rules.winner(board, history, nextMover) == null; ply++){
+				List<Move> moves = moves(board, nextMover);
+				Move move = moves.get(random.nextInt(moves.size()));
+				board = board.applyMove(move);
+				history = history.additionalMove(move, nextMover);
+				nextMover = nextMover.getOtherColor();
+			}
+			if(rules.winner(board, history, nextMover) != null){
+				// Try the next seed
+				continue;
+			}
+			for(Move move : moves(board, nextMover)){
+				if(board.figureAt(move.to) == null){
+					positions.add(new Position(board, history, nextMover, move));
+					break;
+				}
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * The moves of a color, ordered by the fields of the figures, so they do not depend on hash codes.
+	 * @param board
+	 * @param color
+	 * @return
+	 */
+	private static List<Move> moves(Board board, Color color){
+		List<Move> moves = new ArrayList<>();
+		for(long bits = board.occupancy(color); bits != 0; bits &= bits - 1){
+			Figure figure = board.figureAt(board.coordinates(Long.numberOfTrailingZeros(bits)));
+			moves.addAll(figure.moves(board));
+		}
+		return moves;
+	}
+}
@@ -33,5 +33,6 @@ public class GameStarter {
 		Game game = new RandomMoverPawnGame(20000,1000, new AgressiveAgent(), new ChetelatMarcAlain(), 0.0, (new Date()).getTime());
 		game.registerDisplay(new ConsoleDisplay());
 		GameResult result = game.playGame();
+		System.out.println(result.getMetrics());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim;
+
+import java.util.Date;
+
+import ch.uzh.ifi.ddis.pai.chessim.dummyagents.AgressiveAgent;
+import ch.uzh.ifi.ddis.pai.chessim.dummyagents.RandomAgent;
+import ch.uzh.ifi.ddis.pai.chessim.tournament.Tournament;
+import ch.uzh.ifi.ddis.pai.chessim.tournament.TournamentResult;
+import students.ChetelatMarcAlain;
+
+public class TournamentStarter {
+	
+	// Size of the transposition table of the agent (MB)
+	private static final int TABLE_MEGABYTES = 16;
+
+	/**
+	 * Plays a round robin tournament without display, as many games at the same time as the processors allow.
+	 * Feel free to modify the paramenters.
+	 * Arguments: the number of games played at the same time 
+	 * (missing or "default": the number of processors divided by the threads a game uses)
+	 * and "ponder" to let the agent think on the opponent's time (default: off).
+	 * @param args
+	 */
+	public static void main(String[] args){
+		boolean ponder = args.length > 1 && args[1].equals("ponder");
+		// Threads a game keeps busy: the agent to move, and a core for the opponent if it ponders
+		int threadsPerGame = ponder ? 2 : 1;
+		int threads = args.length > 0 && !args[0].equals("default") ? Integer.parseInt(args[0]) 
+				: Math.max(1, Runtime.getRuntime().availableProcessors() / threadsPerGame);
+		Tournament tournament = new Tournament(20000, 1000, 0.0, (new Date()).getTime(), threads);
+		tournament.addParticipant("mac", () -> new ChetelatMarcAlain(TABLE_MEGABYTES, 1, ponder));
+		tournament.addParticipant("aggressive", AgressiveAgent::new);
+		tournament.addParticipant("random", RandomAgent::new);
+		TournamentResult result = tournament.roundRobin(10);
+		System.out.println(result);
+	}
+}
@@ -12,25 +12,71 @@
  */
 package ch.uzh.ifi.ddis.pai.chessim.display;
 
+import java.io.PrintStream;
 import java.util.HashMap;
 
 import ch.uzh.ifi.ddis.pai.chessim.game.Board;
 import ch.uzh.ifi.ddis.pai.chessim.game.Color;
-import ch.uzh.ifi.ddis.pai.chessim.game.Coordinates;
 import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
 import ch.uzh.ifi.ddis.pai.chessim.game.Pawn;
 
+/**
+ * Prints the game to the console.
+ * Every frame (the move number, the next mover and the board after the move) is built in a reusable buffer
+ * and written with a single call. Optionally, only the rows of the board which changed since the last frame are printed,
+ * and frames are limited to a maximal rate: boards arriving faster are skipped, except the last one,
+ * which is printed before the end of the game is announced.
+ */
 public class ConsoleDisplay implements Display{
 
 	private static ConsoleDisplay INSTANCE = null;
 	private HashMap<String, String> whiteSymbols;
 	private HashMap<String, String> blackSymbols;
 	
+	private final PrintStream out;
+	private final boolean diffOnly;
+	// Minimal time between two frames, 0 for no limit
+	private final long frameIntervalNanos;
+	
+	private final StringBuilder frame = new StringBuilder();
+	// Lines about the current move, printed with its board
+	private final StringBuilder status = new StringBuilder();
+	// Fields of the last board printed, null if none was printed
+	private char[] printed;
+	private int printedWidth;
+	private char[] cells = new char[0];
+	private long lastFrameTime;
+	// Board which was not printed because of the frame rate, null if none
+	private Board pending;
+	
 	public ConsoleDisplay(){
+		this(System.out, 0, false);
+	}
+	
+	/**
+	 * @param maxFramesPerSecond the maximal number of boards printed per second, 0 for no limit
+	 * @param diffOnly true to print only the rows which changed since the last board
+	 */
+	public ConsoleDisplay(int maxFramesPerSecond, boolean diffOnly){
+		this(System.out, maxFramesPerSecond, diffOnly);
+	}
+	
+	/**
+	 * @param out the stream to print to
+	 * @param maxFramesPerSecond the maximal number of boards printed per second, 0 for no limit
+	 * @param diffOnly true to print only the rows which changed since the last board
+	 */
+	public ConsoleDisplay(PrintStream out, int maxFramesPerSecond, boolean diffOnly){
+		if(maxFramesPerSecond < 0){
+			throw new IllegalArgumentException();
+		}
 		this.whiteSymbols = new HashMap<String, String>();
 		whiteSymbols.put(Pawn.TYPE_NAME,"X");
 		this.blackSymbols = new HashMap<String, String>();	
 		blackSymbols.put(Pawn.TYPE_NAME,"O");
+		this.out = out;
+		this.diffOnly = diffOnly;
+		this.frameIntervalNanos = maxFramesPerSecond == 0 ? 0 : 1000000000L / maxFramesPerSecond;
 	}
 	
 	public static ConsoleDisplay getInstance(){
@@ -42,24 +88,109 @@ public class ConsoleDisplay implements Display{
 	
 	@Override
 	public void display(Board board){
+		long now = System.nanoTime();
+		if(frameIntervalNanos > 0 && printed != null && now - lastFrameTime < frameIntervalNanos){
+			// Coalesced with the next frame
+			pending = board;
+			status.setLength(0);
+			return;
+		}
+		frame.append(status);
+		status.setLength(0);
+		printFrame(board);
+		lastFrameTime = now;
+	}
+	
+	private void printFrame(Board board){
+		pending = null;
+		int fields = board.height * board.width;
+		if(cells.length != fields){
+			cells = new char[fields];
+		}
+		fillCells(board);
+		boolean diff = diffOnly && printed != null && printed.length == fields && printedWidth == board.width;
 		for(int j = board.height-1; j >= 0; j--){
-			System.out.print('|');
+			int rowStart = j * board.width;
+			if(diff && rowEquals(rowStart, board.width)){
+				continue;
+			}
+			if(diff){
+				frame.append("Row ").append(j).append(' ');
+			}
+			frame.append('|');
 			for(int i = 0; i < board.width; i++){
-				Figure figureAtPosition = board.figureAt(new Coordinates(j,i));
-				if(figureAtPosition == null){
-					System.out.print("_");
-				}else{
-					if(figureAtPosition.color == Color.BLACK){
-						System.out.print(blackSymbols.get(figureAtPosition.type));
-					}else{
-						System.out.print(whiteSymbols.get(figureAtPosition.type));
-					}
-				}
-				System.out.print('|');
+				frame.append(cells[rowStart + i]).append('|');
+			}
+			frame.append('\n');
+		}
+		frame.append('\n');
+		flush();
+		if(printed == null || printed.length != fields){
+			printed = new char[fields];
+		}
+		System.arraycopy(cells, 0, printed, 0, fields);
+		printedWidth = board.width;
+	}
+	
+	private boolean rowEquals(int rowStart, int width){
+		for(int i = rowStart; i < rowStart + width; i++){
+			if(cells[i] != printed[i]){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Writes the symbols of all fields to the cells, using the occupancy words of the board.
+	 * @param board
+	 */
+	private void fillCells(Board board){
+		long white = board.occupancy(Color.WHITE);
+		long black = board.occupancy(Color.BLACK);
+		long pawns = board.pawns(Color.WHITE) | board.pawns(Color.BLACK);
+		for(int index = 0; index < cells.length; index++){
+			long field = 1L << index;
+			if(((white | black) & field) == 0){
+				cells[index] = '_';
+			}else if((pawns & field) != 0){
+				cells[index] = symbol((white & field) != 0 ? whiteSymbols : blackSymbols, Pawn.TYPE_NAME);
+			}else{
+				Figure figure = board.figureAt(board.coordinates(index));
+				cells[index] = symbol(figure.color == Color.BLACK ? blackSymbols : whiteSymbols, figure.type);
 			}
-			System.out.println();
 		}
-		System.out.println();
+	}
+	
+	private static char symbol(HashMap<String, String> symbols, String type){
+		String symbol = symbols.get(type);
+		return symbol == null || symbol.isEmpty() ? '?' : symbol.charAt(0);
+	}
+	
+	/**
+	 * Prints a line, after the board which is still waiting because of the frame rate.
+	 * @param line
+	 */
+	private void printLine(String line){
+		if(pending != null){
+			printFrame(pending);
+		}
+		frame.append(status).append(line).append('\n');
+		status.setLength(0);
+		flush();
+	}
+	
+	private void flush(){
+		out.print(frame);
+		frame.setLength(0);
+	}
+
+	/* (non-Javadoc)
+	 * @see ch.uzh.ifi.ddis.pai.chessim.display.Display#nextMover(ch.uzh.ifi.ddis.pai.chessim.game.Color)
+	 */
+	@Override
+	public void nextMover(Color nextMover) {
+		status.append(nextMover).append('\n');
 	}
 
 	/* (non-Javadoc)
@@ -67,8 +198,7 @@ public class ConsoleDisplay implements Display{
 	 */
 	@Override
 	public void moveNumber(int i) {
-		System.out.println("Executing Move " + i);
-		
+		status.append("Executing Move ").append(i).append('\n');
 	}
 
 	/* (non-Javadoc)
@@ -76,8 +206,7 @@ public class ConsoleDisplay implements Display{
 	 */
 	@Override
 	public void message(String message) {
-		System.out.println("Game Message: " +  message);
-		
+		printLine("Game Message: " +  message);
 	}
 
 	/* (non-Javadoc)
@@ -85,7 +214,7 @@ public class ConsoleDisplay implements Display{
 	 */
 	@Override
 	public void winner(Color winner) {
-		System.out.println("Winner: " + winner.toString());
+		printLine("Winner: " + winner.toString());
 	}
 
 	/* (non-Javadoc)
@@ -93,6 +222,6 @@ public class ConsoleDisplay implements Display{
 	 */
 	@Override
 	public void winningReason(String reason) {
-		System.out.println("Winning Reason: " + reason);
+		printLine("Winning Reason: " + reason);
 	}
 }
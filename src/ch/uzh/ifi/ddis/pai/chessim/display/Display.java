@@ -23,6 +23,13 @@ public interface Display {
 	 */
 	public void display(Board board);
 
+	/**
+	 * The player who moves next
+	 * @param nextMover
+	 */
+	public default void nextMover(Color nextMover){
+	}
+
 	/**
 	 * The current move
 	 * Note that, as opposed to regular chess notation, every move from any 
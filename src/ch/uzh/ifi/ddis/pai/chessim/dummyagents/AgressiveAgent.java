@@ -17,8 +17,6 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Random;
 
 import ch.uzh.ifi.ddis.pai.chessim.game.Agent;
@@ -50,12 +48,12 @@ public class AgressiveAgent implements Agent {
 		List<Move> possibleMoves = new ArrayList<>();
 		Move reserveMove = null;
 		while(new Date().getTime()-startTime < timeLimit - timeSecurityMargin && figuresIter.hasNext()){
-			Map<Move, Board> moves = figuresIter.next().possibleMoves(board);
-			for(Entry<Move, Board> move : moves.entrySet()){
-				if(board.figureAt(move.getKey().to) != null){
-					possibleMoves.add(move.getKey());
+			List<Move> moves = figuresIter.next().moves(board);
+			for(Move move : moves){
+				if(board.figureAt(move.to) != null){
+					possibleMoves.add(move);
 				}else if(reserveMove == null){
-					reserveMove = move.getKey(); 
+					reserveMove = move; 
 				}
 			}
 		}
@@ -47,7 +47,7 @@ public class RandomAgent implements Agent {
 		Iterator<Figure> figures = board.figures(yourColor).values().iterator();
 		List<Move> possibleMoves = new ArrayList<>();
 		while(figures.hasNext()){
-			possibleMoves.addAll(figures.next().possibleMoves(board).keySet());
+			possibleMoves.addAll(figures.next().moves(board));
 		}
 		return possibleMoves.get(rng.nextInt(possibleMoves.size()));		
 	}
@@ -0,0 +1,51 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+/**
+ * The configuration of a game, as seen by the agents playing it.
+ */
+public final class AgentContext {
+	
+	private final long timeLimit;
+	private final long timeInc;
+	private final double probabilitySameMover;
+	
+	public AgentContext(long timeLimit, long timeInc, double probabilitySameMover) {
+		this.timeLimit = timeLimit;
+		this.timeInc = timeInc;
+		this.probabilitySameMover = probabilitySameMover;
+	}
+
+	/**
+	 * @return the time (in ms) every agent has for the whole game, without increments
+	 */
+	public long getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * @return the time (in ms) added to the remaining time of an agent for every move. 
+	 * 	It is already included in the timeLimit passed to {@link Agent#nextMove(Color, Board, History, long)}.
+	 */
+	public long getTimeInc() {
+		return timeInc;
+	}
+	
+	/**
+	 * @return the probability that the player who just moved has to move again, see {@link NextMoverRules#probabilitySameMover()}
+	 */
+	public double getProbabilitySameMover() {
+		return probabilitySameMover;
+	}
+}
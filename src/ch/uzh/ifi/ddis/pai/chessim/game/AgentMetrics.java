@@ -0,0 +1,140 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+import java.util.Locale;
+
+/**
+ * How an agent used its time: the thinking time per move, the share of the time budget used
+ * and the moves after which the agent was close to being disqualified for running out of time.
+ * Metrics of several games can be added up. Not thread safe.
+ */
+public final class AgentMetrics {
+	
+	/**
+	 * A move leaving less time (ms) than this is counted as close to disqualification.
+	 */
+	public static final long NEAR_DISQUALIFICATION_MILLIS = 10;
+	
+	private static final long NANOS_PER_MILLI = 1000000;
+	
+	private final LatencyHistogram thinkingTimes = new LatencyHistogram();
+	// Time the agent got, the time limit and the increments of its moves
+	private long budgetNanos;
+	private double maxMoveUtilization;
+	private int nearDisqualifications;
+	private int timeouts;
+	
+	/**
+	 * Starts counting a game.
+	 * @param timeLimitMillis the time limit of the game
+	 */
+	void gameStarted(long timeLimitMillis){
+		budgetNanos += timeLimitMillis * NANOS_PER_MILLI;
+	}
+	
+	/**
+	 * Counts a move.
+	 * @param thinkingNanos the time the agent took
+	 * @param availableNanos the time the agent had for the move, including the increment
+	 * @param incrementNanos the increment of the move
+	 * @param remainingNanos the time left after the move, negative if the agent took too long
+	 * @param timeout true if the agent was disqualified for the time it took
+	 */
+	void moveMade(long thinkingNanos, long availableNanos, long incrementNanos, long remainingNanos, boolean timeout){
+		thinkingTimes.record(thinkingNanos);
+		budgetNanos += incrementNanos;
+		if(availableNanos > 0){
+			maxMoveUtilization = Math.max(maxMoveUtilization, (double) thinkingNanos / availableNanos);
+		}
+		if(timeout){
+			timeouts++;
+		}else if(remainingNanos < NEAR_DISQUALIFICATION_MILLIS * NANOS_PER_MILLI){
+			nearDisqualifications++;
+		}
+	}
+	
+	/**
+	 * Adds the metrics of another game.
+	 * @param other
+	 */
+	public void add(AgentMetrics other){
+		thinkingTimes.add(other.thinkingTimes);
+		budgetNanos += other.budgetNanos;
+		maxMoveUtilization = Math.max(maxMoveUtilization, other.maxMoveUtilization);
+		nearDisqualifications += other.nearDisqualifications;
+		timeouts += other.timeouts;
+	}
+	
+	/**
+	 * @return the thinking time per move
+	 */
+	public LatencyHistogram getThinkingTimes(){
+		return thinkingTimes;
+	}
+	
+	/**
+	 * @return the share of the time budget (time limit and increments) the agent used, 1.0 if it used all
+	 */
+	public double getBudgetUtilization(){
+		return budgetNanos == 0 ? 0.0 : (double) thinkingTimes.getTotalNanos() / budgetNanos;
+	}
+	
+	/**
+	 * @return the largest share of the available time used by one move
+	 */
+	public double getMaxMoveUtilization(){
+		return maxMoveUtilization;
+	}
+	
+	/**
+	 * @return the moves after which less than {@link #NEAR_DISQUALIFICATION_MILLIS} ms were left
+	 */
+	public int getNearDisqualifications(){
+		return nearDisqualifications;
+	}
+	
+	/**
+	 * @return the moves for which the agent was disqualified because it took too long
+	 */
+	public int getTimeouts(){
+		return timeouts;
+	}
+	
+	/**
+	 * The metrics as a JSON object, times in ms.
+	 * @return
+	 */
+	public String toJson(){
+		return String.format(Locale.ROOT, "{\"moves\":%d,\"p50Millis\":%.3f,\"p99Millis\":%.3f,\"maxMillis\":%.3f,"
+				+ "\"meanMillis\":%.3f,\"budgetUtilization\":%.4f,\"maxMoveUtilization\":%.4f,"
+				+ "\"nearDisqualifications\":%d,\"timeouts\":%d}",
+				thinkingTimes.getCount(), millis(thinkingTimes.getPercentileNanos(50)),
+				millis(thinkingTimes.getPercentileNanos(99)), millis(thinkingTimes.getMaxNanos()),
+				millis(thinkingTimes.getMeanNanos()), getBudgetUtilization(), maxMoveUtilization,
+				nearDisqualifications, timeouts);
+	}
+	
+	@Override
+	public String toString(){
+		return String.format(Locale.ROOT, "%d moves, p50 %.1f ms, p99 %.1f ms, max %.1f ms, budget used %.1f%%, "
+				+ "%d moves close to disqualification, %d timeouts",
+				thinkingTimes.getCount(), millis(thinkingTimes.getPercentileNanos(50)),
+				millis(thinkingTimes.getPercentileNanos(99)), millis(thinkingTimes.getMaxNanos()),
+				getBudgetUtilization() * 100, nearDisqualifications, timeouts);
+	}
+	
+	private static double millis(long nanos){
+		return (double) nanos / NANOS_PER_MILLI;
+	}
+}
@@ -16,19 +16,68 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * An immutable board. 
+ * The fields are numbered row by row (index = row * width + column), the occupied fields 
+ * of each color are kept as one 64 bit word per color, which limits a board to 64 fields.
+ * The map based methods are kept as a view on these words.
+ */
 public final class Board {
 	
+	/**
+	 * The maximum number of fields a board can have (one bit per field)
+	 */
+	public static final int MAX_FIELDS = Long.SIZE;
+	
 	public final int height;
 	public final int width;
-	private final Map<Coordinates, Figure> figures;
+	private final MoveTables tables;
+	private final Figure[] fields;
+	private final long whiteFields;
+	private final long blackFields;
+	// Fields occupied by pawns (of any color)
+	private final long pawnFields;
+	// Lazily created map view of the figures, see figures()
+	private Map<Coordinates, Figure> figures;
 	
 	public Board(int height, int width, Map<Coordinates, Figure> figures){
-		this.figures = Collections.unmodifiableMap(figures);
+		if(height < 0 || width < 0 || height * width > MAX_FIELDS){
+			throw new IllegalArgumentException("A board must not have more than " + MAX_FIELDS + " fields");
+		}
 		this.height = height;
 		this.width = width;
-		for(Coordinates coord : figures.keySet()){
+		this.tables = MoveTables.of(height, width);
+		this.fields = new Figure[height * width];
+		long white = 0L;
+		long black = 0L;
+		long pawns = 0L;
+		for(Map.Entry<Coordinates, Figure> entry : figures.entrySet()){
+			Coordinates coord = entry.getKey();
 			if(!this.onBoard(coord)) throw new IllegalArgumentException();
+			int index = index(coord);
+			fields[index] = entry.getValue();
+			if(entry.getValue().color == Color.WHITE){
+				white |= 1L << index;
+			}else{
+				black |= 1L << index;
+			}
+			if(Pawn.TYPE_NAME.equalsIgnoreCase(entry.getValue().type)){
+				pawns |= 1L << index;
+			}
 		}
+		this.whiteFields = white;
+		this.blackFields = black;
+		this.pawnFields = pawns;
+	}
+	
+	private Board(int height, int width, MoveTables tables, Figure[] fields, long whiteFields, long blackFields, long pawnFields){
+		this.height = height;
+		this.width = width;
+		this.tables = tables;
+		this.fields = fields;
+		this.whiteFields = whiteFields;
+		this.blackFields = blackFields;
+		this.pawnFields = pawnFields;
 	}
 
 	/**
@@ -37,9 +86,18 @@ public final class Board {
 	 * @return
 	 */
 	public Board removeFigure(Coordinates coordinates){
-		Map<Coordinates, Figure> mapCopy = new HashMap<>(figures);
-		mapCopy.remove(coordinates);
-		return new Board(height, width, mapCopy);
+		if(!onBoard(coordinates)){
+			return this;
+		}
+		int index = index(coordinates);
+		long mask = 1L << index;
+		if(((whiteFields | blackFields) & mask) == 0){
+			//Nothing to remove, boards are immutable
+			return this;
+		}
+		Figure[] fieldsCopy = fields.clone();
+		fieldsCopy[index] = null;
+		return new Board(height, width, tables, fieldsCopy, whiteFields & ~mask, blackFields & ~mask, pawnFields & ~mask);
 	}
 	
 	/**
@@ -51,29 +109,82 @@ public final class Board {
 	 * @return
 	 */
 	public Board moveFigure(Coordinates origin, Coordinates destination){
-		if(figures.containsKey(destination)){
+		if(figureAt(destination) != null){
 			throw new IllegalArgumentException("Destination Field is already occupied. If capturing other figure, remove captured figure first");
 		}
-		Figure toMove = figures.get(origin);
+		Figure toMove = figureAt(origin);
 		if(toMove == null) {
 			throw new IllegalArgumentException("No figure to move");
 		}
-		Board newBoard = removeFigure(origin);
-		Map<Coordinates, Figure> newPositions = new HashMap<>(newBoard.figures());
-		newPositions.put(destination, toMove);
-		Board result =  new Board(height, width, newPositions);
-		return result;
+		if(!onBoard(destination)){
+			throw new IllegalArgumentException();
+		}
+		int from = index(origin);
+		int to = index(destination);
+		long moveMask = (1L << from) | (1L << to);
+		Figure[] fieldsCopy = fields.clone();
+		fieldsCopy[from] = null;
+		fieldsCopy[to] = toMove;
+		long pawns = (pawnFields & (1L << from)) != 0 ? pawnFields ^ moveMask : pawnFields;
+		if(toMove.color == Color.WHITE){
+			return new Board(height, width, tables, fieldsCopy, whiteFields ^ moveMask, blackFields, pawns);
+		}else{
+			return new Board(height, width, tables, fieldsCopy, whiteFields, blackFields ^ moveMask, pawns);
+		}
 	}
 	
 	
+	/**
+	 * Executes a move and returns the resulting board. A figure on the destination field is beaten (removed).
+	 * It is not checked, if thats a valid move.
+	 * @throws IllegalArgumentException if there is no figure to be moved at the origin field or if the destination field is occupied by a figure of the same color.
+	 * @param move
+	 * @return
+	 */
+	public Board applyMove(Move move){
+		Figure toMove = figureAt(move.from);
+		if(toMove == null) {
+			throw new IllegalArgumentException("No figure to move");
+		}
+		if(!onBoard(move.to)){
+			throw new IllegalArgumentException();
+		}
+		int from = index(move.from);
+		int to = index(move.to);
+		long moveMask = (1L << from) | (1L << to);
+		if((occupancy(toMove.color) & (1L << to)) != 0){
+			throw new IllegalArgumentException("Destination Field is occupied by a figure of the same color");
+		}
+		Figure[] fieldsCopy = fields.clone();
+		fieldsCopy[from] = null;
+		fieldsCopy[to] = toMove;
+		long pawns;
+		if((pawnFields & (1L << from)) != 0){
+			pawns = (pawnFields & ~(1L << from)) | (1L << to);
+		}else{
+			// A beaten pawn is removed
+			pawns = pawnFields & ~(1L << to);
+		}
+		if(toMove.color == Color.WHITE){
+			return new Board(height, width, tables, fieldsCopy, whiteFields ^ moveMask, blackFields & ~moveMask, pawns);
+		}else{
+			return new Board(height, width, tables, fieldsCopy, whiteFields & ~moveMask, blackFields ^ moveMask, pawns);
+		}
+	}
+	
 	/**
 	 * Returns all figures on the board
 	 * @param color
 	 * @return
 	 */
 	public Map<Coordinates, Figure> figures(){
-		//Save Operation as figures is unmodifyable
-		return figures;
+		//Boards are immutable, so the view can be created once and shared
+		Map<Coordinates, Figure> view = figures;
+		if(view == null){
+			view = Collections.unmodifiableMap(collectFigures(whiteFields | blackFields));
+			figures = view;
+		}
+		return view;
 	}
 	
 	/**
@@ -82,17 +193,49 @@ public final class Board {
 	 * @return
 	 */
 	public Map<Coordinates, Figure> figures(Color color){
+		return collectFigures(occupancy(color));
+	}
+	
+	private Map<Coordinates, Figure> collectFigures(long occupancy){
 		Map<Coordinates, Figure> result = new HashMap<Coordinates, Figure>();
-		
-		for(Map.Entry<Coordinates, Figure> entry : figures.entrySet()){
-			if(entry.getValue().color == color){
-				result.put(entry.getKey(), entry.getValue());
-			}
+		for(long bits = occupancy; bits != 0; bits &= bits - 1){
+			int index = Long.numberOfTrailingZeros(bits);
+			result.put(coordinates(index), fields[index]);
 		}
-		
 		return result;
 	}
 	
+	/**
+	 * The occupied fields of a given color, one bit per field (bit index = row * width + column).
+	 * @param color
+	 * @return
+	 */
+	public long occupancy(Color color){
+		if(color == Color.WHITE){
+			return whiteFields;
+		}else if(color == Color.BLACK){
+			return blackFields;
+		}
+		return 0L;
+	}
+	
+	/**
+	 * The occupied fields of both colors, one bit per field (bit index = row * width + column).
+	 * @return
+	 */
+	public long occupancy(){
+		return whiteFields | blackFields;
+	}
+	
+	/**
+	 * The fields occupied by pawns of a given color, one bit per field (bit index = row * width + column).
+	 * @param color
+	 * @return
+	 */
+	public long pawns(Color color){
+		return occupancy(color) & pawnFields;
+	}
+	
 	/**
 	 * Returns the coordinates of a given figure.
 	 * null if figure is not on board.
@@ -100,9 +243,13 @@ public final class Board {
 	 * @return
 	 */
 	public Coordinates coordinatesOf(Figure figure){
-		for(Map.Entry<Coordinates, Figure> entry : figures.entrySet()){
-			if(entry.getValue().equals(figure)){
-				return entry.getKey();
+		if(figure == null){
+			return null;
+		}
+		for(long bits = occupancy(figure.color); bits != 0; bits &= bits - 1){
+			int index = Long.numberOfTrailingZeros(bits);
+			if(fields[index].equals(figure)){
+				return coordinates(index);
 			}
 		}
 		return null;
@@ -114,7 +261,36 @@ public final class Board {
 	 * @return
 	 */
 	public Figure figureAt(Coordinates coordinates){
-		return figures.get(coordinates);
+		if(!onBoard(coordinates)){
+			return null;
+		}
+		return fields[index(coordinates)];
+	}
+	
+	/**
+	 * The index of the bit representing the given field in the occupancy words.
+	 * @param coordinates
+	 * @return
+	 */
+	public int index(Coordinates coordinates){
+		return coordinates.row * width + coordinates.column;
+	}
+	
+	/**
+	 * The coordinates of the field represented by the given bit index.
+	 * @param index
+	 * @return
+	 */
+	public Coordinates coordinates(int index){
+		return tables.coordinates(index);
+	}
+	
+	/**
+	 * The precomputed move targets for boards of this size.
+	 * @return
+	 */
+	public MoveTables moveTables(){
+		return tables;
 	}
 	
 	/**
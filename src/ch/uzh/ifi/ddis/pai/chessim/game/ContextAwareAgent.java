@@ -0,0 +1,26 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+/**
+ * An agent which wants to know the configuration of the game it plays,
+ * e.g. to plan its time.
+ */
+public interface ContextAwareAgent extends Agent {
+
+	/**
+	 * Called by the game before the first move is requested.
+	 * @param context: The configuration of the game
+	 */
+	void gameStarted(AgentContext context);
+}
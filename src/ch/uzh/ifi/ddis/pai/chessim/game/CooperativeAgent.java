@@ -0,0 +1,33 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+/**
+ * An agent which is told when its move is due, so it can return the best move found so far instead of being disqualified.
+ * 
+ * Every agent is asked for its move on a thread of the game, which stops waiting for the move 
+ * when the time of the agent is up; the thread of the agent is then interrupted and the agent loses the game.
+ */
+public interface CooperativeAgent extends Agent {
+	
+	/**
+	 * Like {@link Agent#nextMove(Color, Board, History, long)}, which is not called for cooperative agents.
+	 * @param yourColor
+	 * @param board: The current state of the game
+	 * @param history: The previous moves of this game
+	 * @param timeLimit: The amount of time (in ms) you have to return a solution. 
+	 * @param deadline: The time at which the move is due, expires early if the game stops waiting
+	 * @return
+	 */
+	Move nextMove(Color yourColor, Board board, History history, long timeLimit, Deadline deadline);
+}
@@ -14,8 +14,37 @@ package ch.uzh.ifi.ddis.pai.chessim.game;
 
 public class Coordinates {
 
+	// Smallest and largest row and column which are shared by of(int, int).
+	// This includes the fields next to the largest possible boards.
+	private static final int MIN_SHARED = -1;
+	private static final int MAX_SHARED = Board.MAX_FIELDS;
+	private static final int SHARED_RANGE = MAX_SHARED - MIN_SHARED + 1;
+	private static final Coordinates[] SHARED = new Coordinates[SHARED_RANGE * SHARED_RANGE];
+	
 	final int row;
 	final int column;
+	
+	/**
+	 * Returns the coordinates of the given field. 
+	 * Instances are shared (coordinates are immutable), so repeated calls for the same field do not create new objects.
+	 * @param row
+	 * @param column
+	 * @return
+	 */
+	public static Coordinates of(int row, int column){
+		if(row < MIN_SHARED || row > MAX_SHARED || column < MIN_SHARED || column > MAX_SHARED){
+			return new Coordinates(row, column);
+		}
+		int index = (row - MIN_SHARED) * SHARED_RANGE + (column - MIN_SHARED);
+		Coordinates shared = SHARED[index];
+		if(shared == null){
+			//Concurrent callers may both create an instance, which is harmless as they are equal
+			shared = new Coordinates(row, column);
+			SHARED[index] = shared;
+		}
+		return shared;
+	}
+	
 	/**
 	 * @param row
 	 * @param column
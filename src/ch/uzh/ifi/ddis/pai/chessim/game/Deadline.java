@@ -0,0 +1,77 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+/**
+ * The time by which an agent has to return its move, passed to {@link CooperativeAgent}s.
+ * The game cancels it when it stops waiting for the move, the agent should then return at once.
+ * Thread safe.
+ */
+public final class Deadline {
+	
+	private static final long NANOS_PER_MILLI = 1000000;
+	
+	// Time (System.nanoTime) at which the move is due
+	private final long deadlineNanos;
+	private volatile boolean cancelled;
+	
+	/**
+	 * @param deadlineNanos the time (System.nanoTime) at which the move is due
+	 */
+	public Deadline(long deadlineNanos){
+		this.deadlineNanos = deadlineNanos;
+	}
+	
+	/**
+	 * @param millis
+	 * @return a deadline the given time from now
+	 */
+	public static Deadline after(long millis){
+		return new Deadline(System.nanoTime() + millis * NANOS_PER_MILLI);
+	}
+	
+	/**
+	 * @return the time (System.nanoTime) at which the move is due
+	 */
+	public long getDeadlineNanos(){
+		return deadlineNanos;
+	}
+	
+	/**
+	 * @return the time left until the deadline (in ms), negative if it passed
+	 */
+	public long remainingMillis(){
+		return (deadlineNanos - System.nanoTime()) / NANOS_PER_MILLI;
+	}
+	
+	/**
+	 * @return true if the deadline passed or was cancelled
+	 */
+	public boolean isExpired(){
+		return cancelled || System.nanoTime() - deadlineNanos >= 0;
+	}
+	
+	/**
+	 * @return true if the game does not wait for the move anymore
+	 */
+	public boolean isCancelled(){
+		return cancelled;
+	}
+	
+	/**
+	 * Ends the deadline before its time.
+	 */
+	public void cancel(){
+		cancelled = true;
+	}
+}
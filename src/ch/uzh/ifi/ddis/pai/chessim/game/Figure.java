@@ -12,6 +12,8 @@
  */
 package ch.uzh.ifi.ddis.pai.chessim.game;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public abstract class Figure {
@@ -25,11 +27,35 @@ public abstract class Figure {
 		this.type = type;
 	}
 	
+	/**
+	 * Returns all the moves a figure can do on a given board. 
+	 * The resulting boards are not created, use {@link Board#applyMove(Move)} if needed.
+	 * @param currentBoard
+	 * @return
+	 */
+	public abstract List<Move> moves(Board currentBoard);
+	
+	/**
+	 * Checks if the figure can do at least one move on a given board.
+	 * @param currentBoard
+	 * @return
+	 */
+	public boolean canMove(Board currentBoard){
+		return !moves(currentBoard).isEmpty();
+	}
+	
 	/**
 	 * Returns all the moves a figure can do on a given board, including the resulting new board.
+	 * Prefer {@link #moves(Board)} if the resulting boards are not needed.
 	 * @param currentBoard
 	 * @return
 	 */
-	public abstract Map<Move,Board> possibleMoves(Board currentBoard);
+	public Map<Move,Board> possibleMoves(Board currentBoard){
+		Map<Move, Board> possibleMoves = new HashMap<>();
+		for(Move move : moves(currentBoard)){
+			possibleMoves.put(move, currentBoard.applyMove(move));
+		}
+		return possibleMoves;
+	}
 	
 }
@@ -11,16 +11,25 @@
 package ch.uzh.ifi.ddis.pai.chessim.game;
 
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import ch.uzh.ifi.ddis.pai.chessim.display.Display;
 
 public abstract class Game {
 	
+	// An agent may exceed its time by this (ms) before it is disqualified
+	private static final long TIME_TOLERANCE = 3;
+	private static final long NANOS_PER_MILLI = 1000000;
+	
 	private final Map<Color, Agent> agents = new HashMap<>();
 	private final WinnerRules winnerRules;
 	private final NextMoverRules nextMoverRules;
@@ -48,17 +57,36 @@ public abstract class Game {
 		Board currentBoard = initialBoard;
 		History history = new History();
 		Color winnersColor = null;
+		// Remaining times in ns, measured with the monotonic clock
 		Map<Color, Long> remainingTimes = new HashMap<Color, Long>();
-		remainingTimes.put(Color.WHITE, timeLimit);
-		remainingTimes.put(Color.BLACK, timeLimit);
+		remainingTimes.put(Color.WHITE, timeLimit * NANOS_PER_MILLI);
+		remainingTimes.put(Color.BLACK, timeLimit * NANOS_PER_MILLI);
+		GameMetrics metrics = new GameMetrics(timeLimit);
+		// The agents are asked for their moves on this thread, so the game does not wait for them longer than their time
+		ExecutorService moveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Agent moves");
+			// An agent ignoring interrupts must not keep the JVM alive
+			thread.setDaemon(true);
+			return thread;
+		});
+		// The agent thinking while the next mover thinks, null if none
+		Color ponderer = null;
+		
+		AgentContext context = getContext();
+		for(Agent agent : agents.values()){
+			if(agent instanceof ContextAwareAgent){
+				((ContextAwareAgent) agent).gameStarted(context);
+			}
+		}
 		
 		while (gameRunning){
 			
 			// Determines the next player to make a move
 			Color nextMover = nextMoverRules.nextMover(history);
 			
-			// Determines if game has a Winner
-			winnersColor = winnerRules.winner(currentBoard, history, nextMover);
+			// Determines if game has a Winner (nobody had won before the last move)
+			Move lastMove = history.size() == 0 ? null : history.getMove(history.size() - 1);
+			winnersColor = winnerRules.winnerAfterMove(currentBoard, history, lastMove, nextMover);
 			if(winnersColor != null){
 				gameRunning = false;
 				for(Display display : displays){
@@ -66,18 +94,28 @@ public abstract class Game {
 				}
 			}else{
 				for(Display display : displays){
-					System.out.println(nextMover);
+					display.nextMover(nextMover);
 					display.moveNumber(history.size());
 				}
 				
+				// The agent pondering is stopped in its move, if it moves next
+				boolean stopPondering = ponderer == nextMover;
+				if(ponderer != null && !stopPondering){
+					// The opponent moves again, ponder on the new position
+					stopPondering(ponderer);
+				}
+				ponderer = startPondering(nextMover.getOtherColor(), currentBoard, history) ? nextMover.getOtherColor() : null;
+				
 				try{
 					// Ask agent for next move
-					long remainingTime = remainingTimes.get(nextMover) + timeInc;
-					long timestamp = new Date().getTime();
-					Move move = agents.get(nextMover).nextMove(nextMover, currentBoard, history, remainingTime);
-					long calculationTime = new Date().getTime() - timestamp; 
-					remainingTime -= calculationTime;
-					if(remainingTime < -3){
+					long availableTime = remainingTimes.get(nextMover) + timeInc * NANOS_PER_MILLI;
+					long timestamp = System.nanoTime();
+					Move move = requestMove(moveExecutor, nextMover, currentBoard, history, timestamp, availableTime, stopPondering);
+					long calculationTime = System.nanoTime() - timestamp;
+					long remainingTime = availableTime - calculationTime;
+					boolean timeout = remainingTime < -TIME_TOLERANCE * NANOS_PER_MILLI;
+					metrics.get(nextMover).moveMade(calculationTime, availableTime, timeInc * NANOS_PER_MILLI, remainingTime, timeout);
+					if(timeout){
 						for(Display display : displays){
 							display.winningReason("Player ran out of time. Player disqualified.");
 						}
@@ -86,7 +124,7 @@ public abstract class Game {
 					}else{
 						remainingTimes.put(nextMover, remainingTime);
 						// Check validity of move
-						if(!currentBoard.figureAt(move.from).possibleMoves(currentBoard).containsKey(move)){
+						if(!currentBoard.figureAt(move.from).moves(currentBoard).contains(move)){
 							for(Display display : displays){
 								display.winningReason("Invalid Move. Player disqualified.");
 							}
@@ -96,14 +134,21 @@ public abstract class Game {
 							// Execute Move
 							// Note: It is checked at the begin of the next 
 							// 		iteration if this is a winning move)
-							currentBoard = currentBoard.removeFigure(move.to);
-							currentBoard = currentBoard.moveFigure(move.from, move.to);	
+							currentBoard = currentBoard.applyMove(move);
 							for(Display display : displays){
 								display.display(currentBoard);
 							}
 				 			history = history.additionalMove(move, nextMover);	
 						}				
 					}
+				}catch(InterruptedException e){
+					// The game was aborted from outside, not by the agent
+					moveExecutor.shutdownNow();
+					if(ponderer != null){
+						stopPondering(ponderer);
+					}
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Game interrupted", e);
 				}catch(Exception e){
 					e.printStackTrace();
 					winnersColor = nextMover.getOtherColor();
@@ -117,15 +162,119 @@ public abstract class Game {
 				}		
 			}
 		}
+		moveExecutor.shutdownNow();
+		if(ponderer != null){
+			stopPondering(ponderer);
+		}
 		for(Display display : displays){
 			display.winner(winnersColor);
 		}
 		
-		GameResult result = new GameResult(history, agents.get(winnersColor), winnersColor);
+		GameResult result = new GameResult(history, agents.get(winnersColor), winnersColor, metrics);
 		return result;
 		
 	}
 	
+	/**
+	 * Asks the agent for its move on the move executor and waits at most until its time is up (with tolerance).
+	 * If the agent takes longer, its deadline is cancelled and its thread interrupted.
+	 * @param moveExecutor
+	 * @param color the color of the agent
+	 * @param board
+	 * @param history
+	 * @param start the time (System.nanoTime) the agent's time started
+	 * @param availableTime the time of the agent, in ns
+	 * @param stopPondering true if the agent is pondering, it is stopped first
+	 * @return the move, null if the agent took too long
+	 * @throws Exception thrown by the agent
+	 * @throws InterruptedException if the thread of the game was interrupted
+	 */
+	private Move requestMove(ExecutorService moveExecutor, Color color, Board board, History history, 
+			long start, long availableTime, boolean stopPondering) throws Exception{
+		Agent agent = agents.get(color);
+		long timeLimitMillis = availableTime / NANOS_PER_MILLI;
+		Deadline deadline = new Deadline(start + availableTime);
+		Future<Move> move = moveExecutor.submit(() -> {
+			if(stopPondering){
+				((PonderingAgent) agent).stopPondering();
+			}
+			return agent instanceof CooperativeAgent 
+					? ((CooperativeAgent) agent).nextMove(color, board, history, timeLimitMillis, deadline)
+					: agent.nextMove(color, board, history, timeLimitMillis);
+		});
+		try{
+			long waitingTime = start + availableTime + TIME_TOLERANCE * NANOS_PER_MILLI + 1 - System.nanoTime();
+			return move.get(waitingTime, TimeUnit.NANOSECONDS);
+		}catch(TimeoutException e){
+			return null;
+		}catch(ExecutionException e){
+			if(e.getCause() instanceof Error){
+				throw (Error) e.getCause();
+			}else if(e.getCause() instanceof Exception){
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}finally{
+			deadline.cancel();
+			move.cancel(true);
+		}
+	}
+	
+	/**
+	 * Lets the agent of a color ponder while the other one thinks, if it can.
+	 * Pondering is optional, so a failing agent is not disqualified.
+	 * @param color
+	 * @param board
+	 * @param history
+	 * @return true if the agent is pondering
+	 */
+	private boolean startPondering(Color color, Board board, History history){
+		Agent agent = agents.get(color);
+		if(!(agent instanceof PonderingAgent)){
+			return false;
+		}
+		try{
+			((PonderingAgent) agent).startPondering(color, board, history);
+			return true;
+		}catch(Exception e){
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	private void stopPondering(Color color){
+		try{
+			((PonderingAgent) agents.get(color)).stopPondering();
+		}catch(Exception e){
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * The configuration of this game, as passed to {@link ContextAwareAgent}s.
+	 * @return
+	 */
+	public AgentContext getContext(){
+		return new AgentContext(timeLimit, timeInc, nextMoverRules.probabilitySameMover());
+	}
+	
+	/**
+	 * The board the game starts with.
+	 * @return
+	 */
+	public Board getInitialBoard(){
+		return initialBoard;
+	}
+	
+	/**
+	 * The agent playing a color.
+	 * @param color
+	 * @return
+	 */
+	public Agent getAgent(Color color){
+		return agents.get(color);
+	}
+
 	public void registerDisplay(Display display){
 		displays.add(display);
 	}
@@ -146,12 +295,18 @@ public abstract class Game {
 		private final History history;
 		private final Agent winner;
 		private final Color winnersColour;
+		private final GameMetrics metrics;
 		
 		public GameResult(History history, Agent winner, Color winnersColour) {
+			this(history, winner, winnersColour, new GameMetrics(timeLimit));
+		}
+		
+		public GameResult(History history, Agent winner, Color winnersColour, GameMetrics metrics) {
 			super();
 			this.history = history;
 			this.winner = winner;
 			this.winnersColour = winnersColour;
+			this.metrics = metrics;
 		}
 
 		/**
@@ -174,6 +329,13 @@ public abstract class Game {
 		public Color getWinnersColour() {
 			return winnersColour;
 		}
+		
+		/**
+		 * @return the timing of the agents
+		 */
+		public GameMetrics getMetrics() {
+			return metrics;
+		}
 			
 		
 	}
@@ -0,0 +1,48 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+/**
+ * The timing of both agents of a game, see {@link AgentMetrics}.
+ */
+public final class GameMetrics {
+	
+	private final AgentMetrics white = new AgentMetrics();
+	private final AgentMetrics black = new AgentMetrics();
+	
+	GameMetrics(long timeLimitMillis){
+		white.gameStarted(timeLimitMillis);
+		black.gameStarted(timeLimitMillis);
+	}
+	
+	/**
+	 * @param color
+	 * @return the metrics of the agent playing the color
+	 */
+	public AgentMetrics get(Color color){
+		return color == Color.WHITE ? white : black;
+	}
+	
+	/**
+	 * The metrics as a JSON object with the metrics of white and black.
+	 * @return
+	 */
+	public String toJson(){
+		return "{\"white\":" + white.toJson() + ",\"black\":" + black.toJson() + "}";
+	}
+	
+	@Override
+	public String toString(){
+		return "White: " + white + "\nBlack: " + black;
+	}
+}
@@ -12,22 +12,30 @@
  */
 package ch.uzh.ifi.ddis.pai.chessim.game;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * An immutable history of moves.
+ * Histories share their moves: the moves are stored in append-only segments, 
+ * and a new history only writes its additional move. A history which is extended a second time 
+ * (i.e. branches) starts a new segment which refers to the moves of the old one.
+ */
 public final class History {
 
-	private final List<Move> moves;
-	private final List<Color> movers;
+	// Segments referring to more parents than this are flattened, to keep access fast
+	private static final int MAX_SEGMENT_DEPTH = 8;
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private final Segment segment;
+	private final int size;
 	
 	public History() {
-		this.moves = new ArrayList<>();
-		this.movers = new ArrayList<>();
+		this(new Segment(null, 0, 0), 0);
 	}
 
-	private History(List<Move> moves, List<Color> movers){
-		this.moves = moves;
-		this.movers = movers;
+	private History(Segment segment, int size){
+		this.segment = segment;
+		this.size = size;
 	}
 	
 	/**
@@ -37,11 +45,21 @@ public final class History {
 	 * @return
 	 */
 	public History additionalMove(Move move, Color color){
-		List<Move> movesNew = new ArrayList<Move>(this.moves);
-		List<Color> moversNew = new ArrayList<>(this.movers);				
-		movesNew.add(move);
-		moversNew.add(color);
-		return new History(movesNew, moversNew);
+		if(segment.append(size, move, color)){
+			return new History(segment, size + 1);
+		}
+		// Another history already continues after this one
+		Segment branch;
+		if(segment.depth < MAX_SEGMENT_DEPTH){
+			branch = new Segment(segment, size, segment.depth + 1);
+		}else{
+			branch = new Segment(null, 0, 0);
+			for(int i = 0; i < size; i++){
+				branch.append(i, getMove(i), getMover(i));
+			}
+		}
+		branch.append(size, move, color);
+		return new History(branch, size + 1);
 	}
 	
 	/**
@@ -49,31 +67,88 @@ public final class History {
 	 * @return
 	 */
 	public int size(){
-		return moves.size();
+		return size;
 	}
 	
 	public Move getMove(int index){
-		return moves.get(index);
+		checkIndex(index);
+		Segment containing = segment;
+		while(index < containing.offset){
+			containing = containing.parent;
+		}
+		return containing.moves[index - containing.offset];
 	}
 	
 	public Color getMover(int index){
-		return movers.get(index);
+		checkIndex(index);
+		Segment containing = segment;
+		while(index < containing.offset){
+			containing = containing.parent;
+		}
+		return containing.movers[index - containing.offset];
 	}
 	
 	public Color lastMover(){
-		return movers.get(movers.size()-1);
+		return getMover(size-1);
+	}
+	
+	private void checkIndex(int index){
+		if(index < 0 || index >= size){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
 	}
 	
 	@Override
 	public String toString(){
 		StringBuilder builder = new StringBuilder();
-		for(int i = 0; i<moves.size(); i++){
+		for(int i = 0; i<size; i++){
 			builder.append('(').append(i).append(')');
-			builder.append(movers.get(i)).append(':');
-			builder.append(moves.get(i).toString());
+			builder.append(getMover(i)).append(':');
+			builder.append(getMove(i).toString());
 			builder.append(" ");
 		}
 		return builder.toString();
 	}
 	
+	/**
+	 * Append-only storage of the moves from index offset on. 
+	 * The moves before offset are stored in the parent segment.
+	 */
+	private static final class Segment{
+		
+		private final Segment parent;
+		private final int offset;
+		private final int depth;
+		// Replaced (never modified at used indices) when growing, volatile for readers on other threads
+		private volatile Move[] moves;
+		private volatile Color[] movers;
+		// Number of moves written to this segment
+		private int count;
+		
+		private Segment(Segment parent, int offset, int depth){
+			this.parent = parent;
+			this.offset = offset;
+			this.depth = depth;
+			this.moves = new Move[INITIAL_CAPACITY];
+			this.movers = new Color[INITIAL_CAPACITY];
+		}
+		
+		/**
+		 * Writes the move at the given index, if it is the next free one of this segment.
+		 * @return false if another move has already been written at this index
+		 */
+		private synchronized boolean append(int index, Move move, Color color){
+			if(index != offset + count){
+				return false;
+			}
+			if(count == moves.length){
+				moves = Arrays.copyOf(moves, count * 2);
+				movers = Arrays.copyOf(movers, count * 2);
+			}
+			moves[count] = move;
+			movers[count] = color;
+			count++;
+			return true;
+		}
+	}
 }
@@ -0,0 +1,116 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+/**
+ * Counts durations in buckets growing with the duration (16 per power of 2), so percentiles are known
+ * to about 6% with a fixed, small memory. Count, mean and maximum are exact.
+ * Not thread safe.
+ */
+public final class LatencyHistogram {
+	
+	// Buckets per power of 2 are 2^SUB_BITS
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+	
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+	
+	/**
+	 * Counts a duration, negative durations count as 0.
+	 * @param nanos
+	 */
+	public void record(long nanos){
+		long value = Math.max(0, nanos);
+		counts[bucket(value)]++;
+		count++;
+		totalNanos += value;
+		maxNanos = Math.max(maxNanos, value);
+	}
+	
+	/**
+	 * Adds the durations counted by another histogram.
+	 * @param other
+	 */
+	public void add(LatencyHistogram other){
+		for(int i = 0; i < BUCKETS; i++){
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		totalNanos += other.totalNanos;
+		maxNanos = Math.max(maxNanos, other.maxNanos);
+	}
+	
+	public long getCount(){
+		return count;
+	}
+	
+	public long getMaxNanos(){
+		return maxNanos;
+	}
+	
+	public long getTotalNanos(){
+		return totalNanos;
+	}
+	
+	public long getMeanNanos(){
+		return count == 0 ? 0 : totalNanos / count;
+	}
+	
+	/**
+	 * The duration not exceeded by the given share of the counted durations,
+	 * rounded up to the end of its bucket (but not above the maximum).
+	 * @param percentile between 0 and 100
+	 * @return 0 if nothing was counted
+	 */
+	public long getPercentileNanos(double percentile){
+		if(percentile < 0 || percentile > 100){
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+		if(count == 0){
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++){
+			seen += counts[i];
+			if(seen >= rank){
+				return Math.min(upperBound(i), maxNanos);
+			}
+		}
+		return maxNanos;
+	}
+	
+	private static int bucket(long value){
+		if(value < SUB_BUCKETS){
+			return (int) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BITS;
+		int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+		return ((shift + 1) << SUB_BITS) + sub;
+	}
+	
+	private static long upperBound(int bucket){
+		if(bucket < SUB_BUCKETS){
+			return bucket;
+		}
+		int shift = (bucket >>> SUB_BITS) - 1;
+		int sub = bucket & (SUB_BUCKETS - 1);
+		long lower = (long) (SUB_BUCKETS + sub) << shift;
+		return lower + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,262 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Precomputed pawn move targets of every field of a board geometry. 
+ * Fields are identified by their index (row * width + column), as in the occupancy words of {@link Board}.
+ * Tables are immutable and shared by all boards of the same size.
+ */
+public final class MoveTables {
+	
+	/**
+	 * Returned by forwardStep if the step would leave the board
+	 */
+	public static final int NO_FIELD = -1;
+	
+	private static final ConcurrentMap<Integer, MoveTables> TABLES = new ConcurrentHashMap<>();
+	private static final int[] NO_TARGETS = new int[0];
+	
+	public final int height;
+	public final int width;
+	private final Coordinates[] coordinates;
+	private final int[] whiteForward;
+	private final int[] blackForward;
+	private final int[][] whiteCaptures;
+	private final int[][] blackCaptures;
+	private final long[] whiteCaptureMasks;
+	private final long[] blackCaptureMasks;
+	// All fields of the board
+	private final long boardMask;
+	// Fields which are not in the first column
+	private final long notFirstColumn;
+	// Fields which are not in the last column
+	private final long notLastColumn;
+	// Row white pawns move to to win
+	private final long whiteLastRow;
+	// Row black pawns move to to win
+	private final long blackLastRow;
+	
+	private MoveTables(int height, int width){
+		this.height = height;
+		this.width = width;
+		int fields = height * width;
+		this.coordinates = new Coordinates[fields];
+		this.whiteForward = new int[fields];
+		this.blackForward = new int[fields];
+		this.whiteCaptures = new int[fields][];
+		this.blackCaptures = new int[fields][];
+		this.whiteCaptureMasks = new long[fields];
+		this.blackCaptureMasks = new long[fields];
+		for(int index = 0; index < fields; index++){
+			int row = index / width;
+			int column = index % width;
+			coordinates[index] = Coordinates.of(row, column);
+			whiteForward[index] = fieldIndex(row + 1, column);
+			blackForward[index] = fieldIndex(row - 1, column);
+			whiteCaptures[index] = targets(row + 1, column);
+			blackCaptures[index] = targets(row - 1, column);
+			whiteCaptureMasks[index] = mask(whiteCaptures[index]);
+			blackCaptureMasks[index] = mask(blackCaptures[index]);
+		}
+		this.boardMask = fields == Long.SIZE ? -1L : (1L << fields) - 1;
+		long firstColumn = 0L;
+		long lastColumn = 0L;
+		for(int row = 0; row < height; row++){
+			firstColumn |= 1L << (row * width);
+			lastColumn |= 1L << (row * width + width - 1);
+		}
+		this.notFirstColumn = boardMask & ~firstColumn;
+		this.notLastColumn = boardMask & ~lastColumn;
+		long firstRow = width == Long.SIZE ? -1L : (1L << width) - 1;
+		this.blackLastRow = height == 0 ? 0L : firstRow;
+		this.whiteLastRow = height == 0 ? 0L : firstRow << ((height - 1) * width);
+	}
+	
+	/**
+	 * Returns the (shared) tables for a board of the given size.
+	 * @param height
+	 * @param width
+	 * @return
+	 */
+	public static MoveTables of(int height, int width){
+		Integer key = height * (Board.MAX_FIELDS + 1) + width;
+		MoveTables tables = TABLES.get(key);
+		if(tables == null){
+			tables = new MoveTables(height, width);
+			MoveTables existing = TABLES.putIfAbsent(key, tables);
+			if(existing != null){
+				tables = existing;
+			}
+		}
+		return tables;
+	}
+	
+	private int fieldIndex(int row, int column){
+		if(row < 0 || row >= height || column < 0 || column >= width){
+			return NO_FIELD;
+		}
+		return row * width + column;
+	}
+	
+	private int[] targets(int row, int column){
+		int left = fieldIndex(row, column - 1);
+		int right = fieldIndex(row, column + 1);
+		if(left == NO_FIELD && right == NO_FIELD){
+			return NO_TARGETS;
+		}else if(left == NO_FIELD){
+			return new int[]{right};
+		}else if(right == NO_FIELD){
+			return new int[]{left};
+		}
+		return new int[]{left, right};
+	}
+	
+	private static long mask(int[] targets){
+		long mask = 0L;
+		for(int target : targets){
+			mask |= 1L << target;
+		}
+		return mask;
+	}
+	
+	/**
+	 * The (shared) coordinates of a field
+	 * @param index
+	 * @return
+	 */
+	public Coordinates coordinates(int index){
+		return coordinates[index];
+	}
+	
+	/**
+	 * The field a pawn of the given color on the given field moves to when moving straight.
+	 * NO_FIELD if the pawn is on the last row.
+	 * @param color
+	 * @param index
+	 * @return
+	 */
+	public int forwardStep(Color color, int index){
+		return color == Color.WHITE ? whiteForward[index] : blackForward[index];
+	}
+	
+	/**
+	 * The fields a pawn of the given color on the given field can capture on. 
+	 * The returned array must not be modified.
+	 * @param color
+	 * @param index
+	 * @return
+	 */
+	public int[] captureTargets(Color color, int index){
+		return color == Color.WHITE ? whiteCaptures[index] : blackCaptures[index];
+	}
+	
+	/**
+	 * The fields a pawn of the given color on the given field can capture on, one bit per field.
+	 * @param color
+	 * @param index
+	 * @return
+	 */
+	public long captureMask(Color color, int index){
+		return color == Color.WHITE ? whiteCaptureMasks[index] : blackCaptureMasks[index];
+	}
+	
+	/**
+	 * All fields of the board, one bit per field.
+	 * @return
+	 */
+	public long boardMask(){
+		return boardMask;
+	}
+	
+	/**
+	 * The row a pawn of the given color has to reach to win, one bit per field.
+	 * @param color
+	 * @return
+	 */
+	public long lastRow(Color color){
+		return color == Color.WHITE ? whiteLastRow : blackLastRow;
+	}
+	
+	/**
+	 * The fields the given pawns can move to straight, one bit per field. 
+	 * The pawn of a target field is the one at target - forwardOffset(color).
+	 * @param color
+	 * @param pawns
+	 * @param empty the fields which are not occupied
+	 * @return
+	 */
+	public long pushTargets(Color color, long pawns, long empty){
+		if(color == Color.WHITE){
+			return (pawns << width) & empty;
+		}
+		return (pawns >>> width) & empty;
+	}
+	
+	/**
+	 * The fields the given pawns can beat on in direction of the first column, one bit per field.
+	 * The pawn of a target field is the one at target - forwardOffset(color) + 1.
+	 * @param color
+	 * @param pawns
+	 * @param opponents the fields occupied by the other color
+	 * @return
+	 */
+	public long leftCaptureTargets(Color color, long pawns, long opponents){
+		if(color == Color.WHITE){
+			return ((pawns & notFirstColumn) << (width - 1)) & opponents;
+		}
+		return ((pawns & notFirstColumn) >>> (width + 1)) & opponents;
+	}
+	
+	/**
+	 * The fields the given pawns can beat on in direction of the last column, one bit per field.
+	 * The pawn of a target field is the one at target - forwardOffset(color) - 1.
+	 * @param color
+	 * @param pawns
+	 * @param opponents the fields occupied by the other color
+	 * @return
+	 */
+	public long rightCaptureTargets(Color color, long pawns, long opponents){
+		if(color == Color.WHITE){
+			return ((pawns & notLastColumn) << (width + 1)) & opponents;
+		}
+		return ((pawns & notLastColumn) >>> (width - 1)) & opponents;
+	}
+	
+	/**
+	 * All fields the given pawns can move to, one bit per field. 
+	 * 0 if none of the pawns can move.
+	 * @param color
+	 * @param pawns
+	 * @param empty the fields which are not occupied
+	 * @param opponents the fields occupied by the other color
+	 * @return
+	 */
+	public long pawnTargets(Color color, long pawns, long empty, long opponents){
+		return pushTargets(color, pawns, empty) 
+				| leftCaptureTargets(color, pawns, opponents) 
+				| rightCaptureTargets(color, pawns, opponents);
+	}
+	
+	/**
+	 * The difference of the field index when a pawn of the given color moves one row forward.
+	 * @param color
+	 * @return
+	 */
+	public int forwardOffset(Color color){
+		return color == Color.WHITE ? width : -width;
+	}
+}
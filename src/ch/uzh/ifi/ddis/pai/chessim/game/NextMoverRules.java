@@ -20,4 +20,13 @@ public interface NextMoverRules {
 	 * @return
 	 */
 	Color nextMover(History history);
+	
+	/**
+	 * The probability that the last mover moves again.
+	 * 0 for rules where the players strictly alternate.
+	 * @return
+	 */
+	default double probabilitySameMover(){
+		return 0.0;
+	}
 }
@@ -12,8 +12,8 @@
  */
 package ch.uzh.ifi.ddis.pai.chessim.game;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class Pawn extends Figure {
 	
@@ -30,48 +30,52 @@ public final class Pawn extends Figure {
 	}
 
 	/* (non-Javadoc)
-	 * @see ch.uzh.ifi.ddis.pai.chessim.game.Figure#possibleMoves(ch.uzh.ifi.ddis.pai.chessim.game.Board)
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.Figure#moves(ch.uzh.ifi.ddis.pai.chessim.game.Board)
 	 */
 	@Override
-	public Map<Move, Board> possibleMoves(Board currentBoard) {
-		int oppositeSideFactor = color == Color.WHITE ? 1 : -1;
-		
+	public List<Move> moves(Board currentBoard) {
 		Coordinates current = currentBoard.coordinatesOf(this); 
 		if(current == null) throw new IllegalArgumentException("The board does not contain this figure");
 		
-		Map<Move, Board> possibleMoves = new HashMap<>();
-		//straight moving coordinates
-		Coordinates targetStraight = new Coordinates(current.getRow() + oppositeSideFactor, current.getColumn());
-		if(currentBoard.onBoard(targetStraight) 
-				&& currentBoard.figureAt(targetStraight) == null){
+		MoveTables tables = currentBoard.moveTables();
+		int index = currentBoard.index(current);
+		List<Move> moves = new ArrayList<>(3);
+		//straight moving field
+		int targetStraight = tables.forwardStep(color, index);
+		if(targetStraight != MoveTables.NO_FIELD 
+				&& (currentBoard.occupancy() & (1L << targetStraight)) == 0){
 			//Straight move is possible
-			Board newBoard = currentBoard.moveFigure(current, targetStraight);
-			possibleMoves.put(new Move(current, targetStraight), newBoard);
+			moves.add(new Move(current, tables.coordinates(targetStraight)));
 		}
 		
-		//Left-Forward beating coordinates
-		Coordinates targetLeft = new Coordinates(current.getRow() + oppositeSideFactor, current.getColumn()-1);
-		if(currentBoard.onBoard(targetLeft) 
-				&& currentBoard.figureAt(targetLeft) != null 
-				&& currentBoard.figureAt(targetLeft).color != color){
-			//Left-Forward move is possible
-			Board newBoard = currentBoard.removeFigure(targetLeft);
-			newBoard = newBoard.moveFigure(current, targetLeft);
-			possibleMoves.put(new Move(current, targetLeft), newBoard);
+		//Left- and Right-Forward beating fields
+		long opponents = currentBoard.occupancy(color.getOtherColor());
+		for(int targetBeating : tables.captureTargets(color, index)){
+			if((opponents & (1L << targetBeating)) != 0){
+				//Beating move is possible
+				moves.add(new Move(current, tables.coordinates(targetBeating)));
+			}
 		}
+	
+		return moves;
+	}
+	
+	/* (non-Javadoc)
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.Figure#canMove(ch.uzh.ifi.ddis.pai.chessim.game.Board)
+	 */
+	@Override
+	public boolean canMove(Board currentBoard) {
+		Coordinates current = currentBoard.coordinatesOf(this); 
+		if(current == null) throw new IllegalArgumentException("The board does not contain this figure");
 		
-		//Right-Forward beating coordinates
-		Coordinates targetRight = new Coordinates(current.getRow() + oppositeSideFactor, current.getColumn()+1);
-		if(currentBoard.onBoard(targetRight) 
-				&& currentBoard.figureAt(targetRight) != null 
-				&& currentBoard.figureAt(targetRight).color != color){
-			//Right-Forward move is possible
-			Board newBoard = currentBoard.removeFigure(targetRight);
-			newBoard = newBoard.moveFigure(current, targetRight);
-			possibleMoves.put(new Move(current, targetRight), newBoard);
+		MoveTables tables = currentBoard.moveTables();
+		int index = currentBoard.index(current);
+		int targetStraight = tables.forwardStep(color, index);
+		if(targetStraight != MoveTables.NO_FIELD 
+				&& (currentBoard.occupancy() & (1L << targetStraight)) == 0){
+			return true;
 		}
-	
-		return possibleMoves;
+		return (tables.captureMask(color, index) & currentBoard.occupancy(color.getOtherColor())) != 0;
 	}
 
 	@Override
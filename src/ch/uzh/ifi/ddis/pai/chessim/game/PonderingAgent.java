@@ -0,0 +1,37 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game;
+
+/**
+ * An agent which thinks while its opponent thinks (pondering), e.g. about the reply it expects.
+ * 
+ * The game starts pondering when the opponent is asked for its move, and stops it before the agent 
+ * is asked for its own move (the time stopping takes counts as thinking time of the agent), 
+ * before pondering on a new position (if the opponent moves twice in a row) and when the game ends.
+ * Every {@link #startPondering(Color, Board, History)} is followed by exactly one {@link #stopPondering()}.
+ */
+public interface PonderingAgent extends Agent {
+	
+	/**
+	 * Starts pondering on the agent's own threads and returns at once.
+	 * @param yourColor
+	 * @param board: The current state of the game, the opponent is to move
+	 * @param history: The previous moves of this game
+	 */
+	void startPondering(Color yourColor, Board board, History history);
+	
+	/**
+	 * Stops pondering and returns when the agent's threads stopped.
+	 */
+	void stopPondering();
+}
@@ -16,4 +16,17 @@ public interface WinnerRules {
 
 	Color winner(Board board, History history, Color nextMover);
 	
+	/**
+	 * Same as {@link #winner(Board, History, Color)}, for a board on which nobody had won before the last move.
+	 * Rules may use the move to check less, by default the whole board is checked.
+	 * @param board the board after lastMove
+	 * @param history
+	 * @param lastMove the move which lead to the board, null if there is none
+	 * @param nextMover
+	 * @return
+	 */
+	default Color winnerAfterMove(Board board, History history, Move lastMove, Color nextMover){
+		return winner(board, history, nextMover);
+	}
+	
 }
@@ -12,15 +12,12 @@
  */
 package ch.uzh.ifi.ddis.pai.chessim.game.randomMover;
 
-import java.util.Collection;
-import java.util.Map;
-
 import ch.uzh.ifi.ddis.pai.chessim.game.Board;
 import ch.uzh.ifi.ddis.pai.chessim.game.Color;
-import ch.uzh.ifi.ddis.pai.chessim.game.Coordinates;
 import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
 import ch.uzh.ifi.ddis.pai.chessim.game.History;
-import ch.uzh.ifi.ddis.pai.chessim.game.Pawn;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.MoveTables;
 import ch.uzh.ifi.ddis.pai.chessim.game.WinnerRules;
 
 public class PawnChessWinner implements WinnerRules {
@@ -35,33 +32,71 @@ public class PawnChessWinner implements WinnerRules {
 		}
 		
 		// Check if someone completed the game (moved a pawn to the other side of the board)
-		Map<Coordinates, Figure> figures = board.figures();
-		for(Map.Entry<Coordinates, Figure> entry : figures.entrySet()){
-			if(entry.getValue().type.equalsIgnoreCase(Pawn.TYPE_NAME)){
-				if(entry.getValue().color == Color.WHITE && entry.getKey().getRow() == board.height-1){
-					return Color.WHITE;
-				}else if(entry.getValue().color == Color.BLACK && entry.getKey().getRow() == 0){
-					return Color.BLACK;
-				}
+		MoveTables tables = board.moveTables();
+		if((board.pawns(Color.WHITE) & tables.lastRow(Color.WHITE)) != 0){
+			return Color.WHITE;
+		}else if((board.pawns(Color.BLACK) & tables.lastRow(Color.BLACK)) != 0){
+			return Color.BLACK;
+		}
+		
+		return blockedWinner(board, nextMover);
+	}
+	
+	/**
+	 * Only the figure moved by lastMove can have reached the other side of the board, so the other figures are not checked.
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.WinnerRules#winnerAfterMove(ch.uzh.ifi.ddis.pai.chessim.game.Board, ch.uzh.ifi.ddis.pai.chessim.game.History, ch.uzh.ifi.ddis.pai.chessim.game.Move, ch.uzh.ifi.ddis.pai.chessim.game.Color)
+	 */
+	@Override
+	public Color winnerAfterMove(Board board, History history, Move lastMove, Color nextMover) {
+		if(lastMove == null){
+			return winner(board, history, nextMover);
+		}
+		if(nextMover == null || history == null || board == null){
+			throw new IllegalArgumentException();
+		}
+		
+		// Check if the moved pawn reached the other side of the board
+		Figure moved = board.figureAt(lastMove.to);
+		if(moved != null){
+			long movedField = 1L << board.index(lastMove.to);
+			if((board.pawns(moved.color) & board.moveTables().lastRow(moved.color) & movedField) != 0){
+				return moved.color;
 			}
 		}
 		
-		// Check if next mover can't move anymore
-		Collection<Figure> moversFigures = board.figures(nextMover).values();
-		Color otherColor = nextMover == Color.BLACK ? Color.WHITE : Color.BLACK;
-		if(moversFigures.isEmpty()){
+		return blockedWinner(board, nextMover);
+	}
+	
+	/**
+	 * Check if next mover can't move anymore
+	 * @param board
+	 * @param nextMover
+	 * @return the other color if the next mover is blocked, null otherwise
+	 */
+	private Color blockedWinner(Board board, Color nextMover){
+		Color otherColor = nextMover.getOtherColor();
+		long moversFields = board.occupancy(nextMover);
+		if(moversFields == 0){
 			return otherColor;
-		}else{
-			for(Figure figure : moversFigures){
-				if(!figure.possibleMoves(board).isEmpty()){
-					//Next player has at least one possible move
-					return null;
-				}
+		}
+		
+		// Fields the pawns of the next mover can move to
+		long moversPawns = board.pawns(nextMover);
+		long empty = board.moveTables().boardMask() & ~board.occupancy();
+		if(board.moveTables().pawnTargets(nextMover, moversPawns, empty, board.occupancy(otherColor)) != 0){
+			//Next player has at least one possible move
+			return null;
+		}
+		
+		// Other figures than pawns are asked for their moves
+		for(long others = moversFields & ~moversPawns; others != 0; others &= others - 1){
+			Figure figure = board.figureAt(board.coordinates(Long.numberOfTrailingZeros(others)));
+			if(figure.canMove(board)){
+				return null;
 			}
-			//Next player has not possible moves
-			return otherColor;
 		}
-
+		//Next player has not possible moves
+		return otherColor;
 	}
 
 }
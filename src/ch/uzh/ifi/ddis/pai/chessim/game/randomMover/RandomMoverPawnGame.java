@@ -22,13 +22,32 @@ import ch.uzh.ifi.ddis.pai.chessim.game.Coordinates;
 import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
 import ch.uzh.ifi.ddis.pai.chessim.game.Game;
 import ch.uzh.ifi.ddis.pai.chessim.game.Pawn;
+import ch.uzh.ifi.ddis.pai.chessim.game.WinnerRules;
 
 public class RandomMoverPawnGame extends Game {
 
 	public RandomMoverPawnGame(long timeLimit, long timeInc, Agent white, Agent black, double probabilitySameMover,
 			long seed) {
-		super(new PawnChessWinner(), new RandomNextMover(seed, probabilitySameMover), createNewBoard(), white, black,
-				timeLimit, timeInc);
+		this(new PawnChessWinner(), timeLimit, timeInc, white, black, probabilitySameMover, seed);
+	}
+
+	/**
+	 * Game with other winner rules, e.g. a
+	 * {@link ch.uzh.ifi.ddis.pai.chessim.tablebase.TablebaseWinner} adjudicating
+	 * endgames
+	 * 
+	 * @param winnerRules
+	 * @param timeLimit
+	 * @param timeInc
+	 * @param white
+	 * @param black
+	 * @param probabilitySameMover
+	 * @param seed
+	 */
+	public RandomMoverPawnGame(WinnerRules winnerRules, long timeLimit, long timeInc, Agent white, Agent black,
+			double probabilitySameMover, long seed) {
+		super(winnerRules, new RandomNextMover(seed, probabilitySameMover), createNewBoard(), white, black, timeLimit,
+				timeInc);
 	}
 
 	/**
@@ -36,17 +55,17 @@ public class RandomMoverPawnGame extends Game {
 	 * 
 	 * @return
 	 */
-	private static Board createNewBoard() {
+	public static Board createNewBoard() {
 		Map<Coordinates, Figure> figures = new HashMap<>();
 		int quadraticBoardSize = 8;
 		for (int row = 0; row <= 1; row++) {
 			for (int column = 0; column < quadraticBoardSize; column++) {
-				figures.put(new Coordinates(row, column), new Pawn(Color.WHITE));
+				figures.put(Coordinates.of(row, column), new Pawn(Color.WHITE));
 			}
 		}
 		for (int row = quadraticBoardSize - 2; row <= quadraticBoardSize - 1; row++) {
 			for (int column = 0; column < quadraticBoardSize; column++) {
-				figures.put(new Coordinates(row, column), new Pawn(Color.BLACK));
+				figures.put(Coordinates.of(row, column), new Pawn(Color.BLACK));
 			}
 		}
 		// figures.put(new Coordinates(0, 3), new Pawn(Color.WHITE));
@@ -44,5 +44,13 @@ public final class RandomNextMover implements NextMoverRules {
 			return lastMover.getOtherColor();
 		}
 	}
+	
+	/* (non-Javadoc)
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.NextMoverRules#probabilitySameMover()
+	 */
+	@Override
+	public double probabilitySameMover() {
+		return probabilitySameMover;
+	}
 
 }
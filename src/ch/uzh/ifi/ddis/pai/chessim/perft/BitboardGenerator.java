@@ -0,0 +1,87 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.perft;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.MoveTables;
+
+/**
+ * Generates the moves of all pawns of a color at once with the shifts of {@link MoveTables},
+ * without creating boards. On the last ply only the moves are counted (bulk counting).
+ * Only for boards without other figures than pawns.
+ */
+public class BitboardGenerator implements MoveGenerator {
+
+	/* (non-Javadoc)
+	 * @see ch.uzh.ifi.ddis.pai.chessim.perft.MoveGenerator#perft(ch.uzh.ifi.ddis.pai.chessim.game.Board, ch.uzh.ifi.ddis.pai.chessim.game.Color, int, ch.uzh.ifi.ddis.pai.chessim.perft.PerftCache)
+	 */
+	@Override
+	public long perft(Board board, Color nextMover, int depth, PerftCache cache){
+		if(board.pawns(Color.WHITE) != board.occupancy(Color.WHITE) || board.pawns(Color.BLACK) != board.occupancy(Color.BLACK)){
+			throw new IllegalArgumentException("Only pawns are supported");
+		}
+		return perft(board.moveTables(), board.pawns(Color.WHITE), board.pawns(Color.BLACK), nextMover, depth, cache);
+	}
+
+	private long perft(MoveTables tables, long white, long black, Color nextMover, int depth, PerftCache cache){
+		if(depth == 0){
+			return 1;
+		}
+		if((white & tables.lastRow(Color.WHITE)) != 0 || (black & tables.lastRow(Color.BLACK)) != 0){
+			return 0;
+		}
+		long own = nextMover == Color.WHITE ? white : black;
+		long opponents = nextMover == Color.WHITE ? black : white;
+		long empty = tables.boardMask() & ~(white | black);
+		long pushes = tables.pushTargets(nextMover, own, empty);
+		long leftCaptures = tables.leftCaptureTargets(nextMover, own, opponents);
+		long rightCaptures = tables.rightCaptureTargets(nextMover, own, opponents);
+		if(depth == 1){
+			return Long.bitCount(pushes) + Long.bitCount(leftCaptures) + Long.bitCount(rightCaptures);
+		}
+
+		long key = 0;
+		if(cache != null){
+			key = PerftCache.key(white, black, nextMover);
+			long cached = cache.probe(key, depth);
+			if(cached != PerftCache.MISS){
+				return cached;
+			}
+		}
+		int forward = tables.forwardOffset(nextMover);
+		long nodes = 0;
+		for(int type = 0; type < 3; type++){
+			long targets = type == 0 ? pushes : type == 1 ? leftCaptures : rightCaptures;
+			int step = type == 0 ? forward : type == 1 ? forward - 1 : forward + 1;
+			for(long bits = targets; bits != 0; bits &= bits - 1){
+				int to = Long.numberOfTrailingZeros(bits);
+				long toBit = 1L << to;
+				long moved = own ^ (1L << (to - step)) ^ toBit;
+				long remaining = opponents & ~toBit;
+				nodes += nextMover == Color.WHITE
+						? perft(tables, moved, remaining, Color.BLACK, depth - 1, cache)
+						: perft(tables, remaining, moved, Color.WHITE, depth - 1, cache);
+			}
+		}
+		if(cache != null){
+			cache.store(key, depth, nodes);
+		}
+		return nodes;
+	}
+
+	@Override
+	public String toString(){
+		return "bitboard";
+	}
+}
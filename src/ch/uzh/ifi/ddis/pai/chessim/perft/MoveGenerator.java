@@ -0,0 +1,33 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.perft;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+
+/**
+ * Counts the leaf nodes of the game tree below a position (perft), with the players moving alternately.
+ * A position in which a pawn reached the last row ends the game and has no successors.
+ * Every generator has to return the same numbers as the {@link ReferenceGenerator}.
+ */
+public interface MoveGenerator {
+
+	/**
+	 * @param board
+	 * @param nextMover
+	 * @param depth the number of plies, 0 counts the position itself
+	 * @param cache results of positions counted before, null to count every position
+	 * @return the number of positions reached after depth plies
+	 */
+	public long perft(Board board, Color nextMover, int depth, PerftCache cache);
+}
@@ -0,0 +1,192 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.perft;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.RandomMoverPawnGame;
+
+/**
+ * Counts the positions reached from a position after a number of plies (perft), to check the move generation
+ * and to measure its speed. The subtrees of the moves of the position are counted in parallel,
+ * and can be listed one by one (divide), which shows where two generators differ.
+ */
+public class Perft {
+
+	/**
+	 * Perft of the start position of {@link RandomMoverPawnGame} with white moving first, by depth.
+	 * Any change of the move generation has to keep these numbers, PerftTest checks them up to depth 6.
+	 * Up to depth 8 they were counted by the reference generator, the others by the bitboard generator with and without cache.
+	 */
+	static final long[] START_POSITION = {
+		1L, 8L, 64L, 576L, 5184L, 50118L, 484684L, 4951852L, 50634072L, 540908230L, 5786418956L, 64204687182L,
+	};
+
+	private final MoveGenerator generator;
+	private final PerftCache cache;
+	private final ForkJoinPool pool;
+
+	/**
+	 * @param generator
+	 * @param cache shared by all threads, null to count every position
+	 * @param pool the threads counting the subtrees of the moves
+	 */
+	public Perft(MoveGenerator generator, PerftCache cache, ForkJoinPool pool){
+		this.generator = generator;
+		this.cache = cache;
+		this.pool = pool;
+	}
+
+	/**
+	 * Counts the start position up to a depth and compares with the known numbers.
+	 * Arguments: the depth (default 6), the generator ("bitboard" (default) or "reference"),
+	 * the memory of the cache in MB (default 0, no cache), the number of threads (default: the number of processors)
+	 * and "divide" to list the subtrees of the moves at the last depth.
+	 * @param args
+	 */
+	public static void main(String[] args){
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		MoveGenerator generator = args.length > 1 && args[1].equals("reference") ? new ReferenceGenerator() : new BitboardGenerator();
+		int cacheMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		boolean divide = args.length > 4 && args[4].equals("divide");
+
+		Board board = RandomMoverPawnGame.createNewBoard();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		Perft perft = new Perft(generator, cacheMegabytes > 0 ? new PerftCache(cacheMegabytes) : null, pool);
+		boolean correct = true;
+		try{
+			for(int d = 1; d <= depth; d++){
+				long start = System.nanoTime();
+				long nodes;
+				if(divide && d == depth){
+					Map<Move, Long> subtrees = perft.divide(board, Color.WHITE, d);
+					nodes = 0;
+					for(Map.Entry<Move, Long> subtree : subtrees.entrySet()){
+						System.out.println(subtree.getKey() + ": " + subtree.getValue());
+						nodes += subtree.getValue();
+					}
+				}else{
+					nodes = perft.perft(board, Color.WHITE, d);
+				}
+				long nanos = Math.max(1, System.nanoTime() - start);
+				StringBuilder line = new StringBuilder().append("perft(").append(d).append(") = ").append(nodes)
+						.append(" in ").append(nanos / 1000000).append(" ms, ")
+						.append(nodes * 1000000000 / nanos).append(" nodes/s");
+				if(d < START_POSITION.length && START_POSITION[d] != nodes){
+					line.append(", expected ").append(START_POSITION[d]);
+					correct = false;
+				}
+				System.out.println(line);
+			}
+		}finally{
+			pool.shutdown();
+		}
+		System.out.println(generator + " generator: " + (correct ? "correct" : "WRONG"));
+		if(!correct){
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @param board
+	 * @param nextMover
+	 * @param depth
+	 * @return the number of positions reached after depth plies
+	 */
+	public long perft(Board board, Color nextMover, int depth){
+		if(depth == 0){
+			return 1;
+		}
+		long nodes = 0;
+		for(long subtree : divide(board, nextMover, depth).values()){
+			nodes += subtree;
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts the subtree of every move of the position, in parallel.
+	 * @param board
+	 * @param nextMover
+	 * @param depth at least 1
+	 * @return the number of positions reached after depth plies, per first move, ordered by the fields of the move
+	 */
+	public Map<Move, Long> divide(Board board, Color nextMover, int depth){
+		if(depth < 1){
+			throw new IllegalArgumentException("The depth must be at least 1");
+		}
+		Map<Move, Long> subtrees = new LinkedHashMap<>();
+		if(gameOver(board)){
+			return subtrees;
+		}
+		List<Move> moves = new ArrayList<>();
+		List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+		for(long bits = board.occupancy(nextMover); bits != 0; bits &= bits - 1){
+			for(Map.Entry<Move, Board> move : board.figureAt(board.coordinates(Long.numberOfTrailingZeros(bits)))
+					.possibleMoves(board).entrySet()){
+				Board successor = move.getValue();
+				moves.add(move.getKey());
+				tasks.add(new RecursiveTask<Long>(){
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected Long compute(){
+						return generator.perft(successor, nextMover.getOtherColor(), depth - 1, cache);
+					}
+				});
+			}
+		}
+		// possibleMoves is not ordered
+		List<Integer> order = new ArrayList<>();
+		for(int i = 0; i < moves.size(); i++){
+			order.add(i);
+		}
+		order.sort((first, second) -> Integer.compare(sortKey(board, moves.get(first)), sortKey(board, moves.get(second))));
+		pool.invoke(new RecursiveTask<Void>(){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Void compute(){
+				invokeAll(tasks);
+				return null;
+			}
+		});
+		for(int i : order){
+			subtrees.put(moves.get(i), tasks.get(i).join());
+		}
+		return subtrees;
+	}
+
+	private static int sortKey(Board board, Move move){
+		return board.index(move.from) * Board.MAX_FIELDS + board.index(move.to);
+	}
+
+	/**
+	 * @param board
+	 * @return true if a pawn reached the last row, which ends the game
+	 */
+	static boolean gameOver(Board board){
+		return (board.pawns(Color.WHITE) & board.moveTables().lastRow(Color.WHITE)) != 0
+				|| (board.pawns(Color.BLACK) & board.moveTables().lastRow(Color.BLACK)) != 0;
+	}
+}
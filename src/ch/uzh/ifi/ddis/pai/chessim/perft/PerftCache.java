@@ -0,0 +1,97 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.perft;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+
+/**
+ * Node counts of positions by hash, shared by all threads of a perft without locks.
+ * An entry is a key word and a data word (node count and depth); the key word is stored as hash ^ data,
+ * so an entry torn by concurrent writes does not match any hash and is ignored.
+ * Entries are replaced always. Positions with the same hash would get the same count, which is unlikely with 64 bits.
+ */
+public class PerftCache {
+
+	/**
+	 * Returned by {@link #probe(long, int)} if the position is not cached.
+	 */
+	public static final long MISS = -1;
+
+	// Bytes of an entry
+	private static final int ENTRY_SIZE = 16;
+	private static final int DEPTH_BITS = 8;
+
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+
+	/**
+	 * @param megabytes the memory used, rounded down to a power of 2 entries
+	 */
+	public PerftCache(int megabytes){
+		if(megabytes < 1){
+			throw new IllegalArgumentException("At least 1 MB is needed");
+		}
+		long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_SIZE);
+		int size = (int) Math.min(entries, 1 << 30);
+		this.keys = new long[size];
+		this.data = new long[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * The hash of a position.
+	 * @param white the white figures, one bit per field
+	 * @param black the black figures, one bit per field
+	 * @param nextMover
+	 * @return
+	 */
+	public static long key(long white, long black, Color nextMover){
+		long key = mix(mix(white) ^ black);
+		return nextMover == Color.WHITE ? key : ~key;
+	}
+
+	// Finalizer of SplitMix64
+	private static long mix(long value){
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @param key
+	 * @param depth
+	 * @return the node count of the position to the depth, {@link #MISS} if not cached
+	 */
+	public long probe(long key, int depth){
+		int index = (int) key & mask;
+		long entry = data[index];
+		if((keys[index] ^ entry) != key || (entry & ((1 << DEPTH_BITS) - 1)) != depth){
+			return MISS;
+		}
+		return entry >>> DEPTH_BITS;
+	}
+
+	/**
+	 * @param key
+	 * @param depth at most 255
+	 * @param nodes less than 2^56
+	 */
+	public void store(long key, int depth, long nodes){
+		int index = (int) key & mask;
+		long entry = nodes << DEPTH_BITS | depth;
+		data[index] = entry;
+		keys[index] = key ^ entry;
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.perft;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
+
+/**
+ * Generates the moves through {@link Figure#possibleMoves(Board)}, as the agents see them.
+ * Slow, but it defines the correct numbers.
+ */
+public class ReferenceGenerator implements MoveGenerator {
+
+	/* (non-Javadoc)
+	 * @see ch.uzh.ifi.ddis.pai.chessim.perft.MoveGenerator#perft(ch.uzh.ifi.ddis.pai.chessim.game.Board, ch.uzh.ifi.ddis.pai.chessim.game.Color, int, ch.uzh.ifi.ddis.pai.chessim.perft.PerftCache)
+	 */
+	@Override
+	public long perft(Board board, Color nextMover, int depth, PerftCache cache){
+		if(depth == 0){
+			return 1;
+		}
+		if(Perft.gameOver(board)){
+			return 0;
+		}
+		long key = 0;
+		if(cache != null){
+			key = PerftCache.key(board.occupancy(Color.WHITE), board.occupancy(Color.BLACK), nextMover);
+			long cached = cache.probe(key, depth);
+			if(cached != PerftCache.MISS){
+				return cached;
+			}
+		}
+		long nodes = 0;
+		for(Figure figure : board.figures(nextMover).values()){
+			for(Board successor : figure.possibleMoves(board).values()){
+				nodes += perft(successor, nextMover.getOtherColor(), depth - 1, cache);
+			}
+		}
+		if(cache != null){
+			cache.store(key, depth, nodes);
+		}
+		return nodes;
+	}
+
+	@Override
+	public String toString(){
+		return "reference";
+	}
+}
@@ -0,0 +1,265 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.record;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Coordinates;
+import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
+import ch.uzh.ifi.ddis.pai.chessim.game.Game;
+import ch.uzh.ifi.ddis.pai.chessim.game.History;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.Pawn;
+
+/**
+ * A finished game as stored by {@link GameRecordWriter}: the configuration of the game,
+ * the pawns it started with, its moves and its winner.
+ *
+ * Moves are packed into 16 bits: the index of the origin field (6 bits), the index of the destination
+ * field (6 bits) and the mover (1 bit, set for black). Indexes are row * width + column, as in {@link Board#index(Coordinates)}.
+ */
+public final class GameRecord {
+
+	/**
+	 * The largest number of moves of a record.
+	 */
+	public static final int MAX_MOVES = 0xFFFF;
+
+	private static final int INDEX_BITS = 6;
+	private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+	private static final int MOVER_BIT = 1 << (2 * INDEX_BITS);
+
+	private final String whiteAgent;
+	private final String blackAgent;
+	private final long seed;
+	private final double probabilitySameMover;
+	private final int timeLimit;
+	private final int timeInc;
+	private final int height;
+	private final int width;
+	private final long whitePawns;
+	private final long blackPawns;
+	private final Color winner;
+	private final short[] moves;
+
+	/**
+	 * @param whiteAgent the alias of the white agent
+	 * @param blackAgent the alias of the black agent
+	 * @param seed the seed of the next mover rules
+	 * @param probabilitySameMover
+	 * @param timeLimit the time of each agent in ms
+	 * @param timeInc the increment per move in ms
+	 * @param height the height of the board
+	 * @param width the width of the board
+	 * @param whitePawns the white pawns the game started with, one bit per field
+	 * @param blackPawns the black pawns the game started with, one bit per field
+	 * @param winner the color of the winner, null if there is none
+	 * @param moves the packed moves, see {@link #pack(int, int, Color)}
+	 */
+	public GameRecord(String whiteAgent, String blackAgent, long seed, double probabilitySameMover,
+			long timeLimit, long timeInc, int height, int width, long whitePawns, long blackPawns, Color winner, short[] moves){
+		if(height < 1 || width < 1 || height * width > Board.MAX_FIELDS){
+			throw new IllegalArgumentException("Unsupported board of " + height + "x" + width);
+		}
+		if(timeLimit < 0 || timeLimit > Integer.MAX_VALUE || timeInc < 0 || timeInc > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Time control out of range: " + timeLimit + "+" + timeInc);
+		}
+		if(moves.length > MAX_MOVES){
+			throw new IllegalArgumentException("Too many moves: " + moves.length);
+		}
+		this.whiteAgent = whiteAgent;
+		this.blackAgent = blackAgent;
+		this.seed = seed;
+		this.probabilitySameMover = probabilitySameMover;
+		this.timeLimit = (int) timeLimit;
+		this.timeInc = (int) timeInc;
+		this.height = height;
+		this.width = width;
+		this.whitePawns = whitePawns;
+		this.blackPawns = blackPawns;
+		this.winner = winner;
+		this.moves = moves.clone();
+	}
+
+	/**
+	 * The record of a played game.
+	 * @param game the game
+	 * @param result the result of {@link Game#playGame()}
+	 * @param seed the seed of the next mover rules of the game
+	 * @return
+	 */
+	public static GameRecord of(Game game, Game.GameResult result, long seed){
+		Board board = game.getInitialBoard();
+		History history = result.getHistory();
+		short[] moves = new short[history.size()];
+		for(int i = 0; i < moves.length; i++){
+			Move move = history.getMove(i);
+			moves[i] = pack(board.index(move.from), board.index(move.to), history.getMover(i));
+		}
+		return new GameRecord(game.getAgent(Color.WHITE).developerAlias(), game.getAgent(Color.BLACK).developerAlias(),
+				seed, game.getContext().getProbabilitySameMover(), game.timeLimit, game.timeInc, board.height, board.width,
+				board.pawns(Color.WHITE), board.pawns(Color.BLACK), result.getWinnersColour(), moves);
+	}
+
+	/**
+	 * Packs a move.
+	 * @param from the index of the origin field
+	 * @param to the index of the destination field
+	 * @param mover
+	 * @return
+	 */
+	public static short pack(int from, int to, Color mover){
+		return (short) (from | to << INDEX_BITS | (mover == Color.BLACK ? MOVER_BIT : 0));
+	}
+
+	/**
+	 * The index of the origin field of a packed move.
+	 * @param move
+	 * @return
+	 */
+	public static int from(short move){
+		return move & INDEX_MASK;
+	}
+
+	/**
+	 * The index of the destination field of a packed move.
+	 * @param move
+	 * @return
+	 */
+	public static int to(short move){
+		return move >>> INDEX_BITS & INDEX_MASK;
+	}
+
+	/**
+	 * The player of a packed move.
+	 * @param move
+	 * @return
+	 */
+	public static Color mover(short move){
+		return (move & MOVER_BIT) != 0 ? Color.BLACK : Color.WHITE;
+	}
+
+	/**
+	 * The alias of the agent playing a color.
+	 * @param color
+	 * @return
+	 */
+	public String getAgent(Color color){
+		return color == Color.WHITE ? whiteAgent : blackAgent;
+	}
+
+	public long getSeed(){
+		return seed;
+	}
+
+	public double getProbabilitySameMover(){
+		return probabilitySameMover;
+	}
+
+	/**
+	 * @return the time of each agent in ms
+	 */
+	public long getTimeLimit(){
+		return timeLimit;
+	}
+
+	/**
+	 * @return the increment per move in ms
+	 */
+	public long getTimeInc(){
+		return timeInc;
+	}
+
+	public int getHeight(){
+		return height;
+	}
+
+	public int getWidth(){
+		return width;
+	}
+
+	/**
+	 * The pawns of a color the game started with.
+	 * @param color
+	 * @return one bit per field
+	 */
+	public long getInitialPawns(Color color){
+		return color == Color.WHITE ? whitePawns : blackPawns;
+	}
+
+	/**
+	 * @return the color of the winner, null if there is none
+	 */
+	public Color getWinner(){
+		return winner;
+	}
+
+	public int moveCount(){
+		return moves.length;
+	}
+
+	/**
+	 * @param index
+	 * @return the packed move
+	 */
+	public short getPackedMove(int index){
+		return moves[index];
+	}
+
+	public Move getMove(int index){
+		short move = moves[index];
+		return new Move(coordinates(from(move), width), coordinates(to(move), width));
+	}
+
+	public Color getMover(int index){
+		return mover(moves[index]);
+	}
+
+	/**
+	 * The board the game started with.
+	 * @return
+	 */
+	public Board initialBoard(){
+		return board(height, width, whitePawns, blackPawns);
+	}
+
+	/**
+	 * The moves of the game.
+	 * @return
+	 */
+	public History history(){
+		History history = new History();
+		for(int i = 0; i < moves.length; i++){
+			history = history.additionalMove(getMove(i), getMover(i));
+		}
+		return history;
+	}
+
+	static Coordinates coordinates(int index, int width){
+		return Coordinates.of(index / width, index % width);
+	}
+
+	static Board board(int height, int width, long whitePawns, long blackPawns){
+		Map<Coordinates, Figure> figures = new HashMap<>();
+		for(long bits = whitePawns; bits != 0; bits &= bits - 1){
+			figures.put(coordinates(Long.numberOfTrailingZeros(bits), width), new Pawn(Color.WHITE));
+		}
+		for(long bits = blackPawns; bits != 0; bits &= bits - 1){
+			figures.put(coordinates(Long.numberOfTrailingZeros(bits), width), new Pawn(Color.BLACK));
+		}
+		return new Board(height, width, figures);
+	}
+}
@@ -0,0 +1,268 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.record;
+
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.BLACK_PAWNS;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.HEADER_SIZE;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.HEIGHT;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.MOVES;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.MOVE_COUNT;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.PROBABILITY;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.SEED;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.TIME_INC;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.TIME_LIMIT;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.WHITE_PAWNS;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.WIDTH;
+import static ch.uzh.ifi.ddis.pai.chessim.record.GameRecordWriter.WINNER;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+
+/**
+ * Reads a file written by {@link GameRecordWriter}, one record after the other.
+ * The file is mapped into memory and the fields of the current record are read from the mapping,
+ * so iterating over the records does not copy or allocate anything. {@link #record()} copies the current record.
+ *
+ * Records appended after the file was opened are not read. A reader is not thread-safe.
+ */
+public final class GameRecordReader implements Closeable {
+
+	// Size of the parts of the file mapped at once, larger files are mapped part by part
+	private static final long MAP_SIZE = 1L << 28;
+
+	private final File file;
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer window;
+	// Offset of the mapped part in the file
+	private long windowStart;
+	// Offset of the current record in the file, -1 before the first one
+	private long offset = -1;
+	private long nextOffset = HEADER_SIZE;
+	// Position of the current record in the mapped part
+	private int base;
+
+	private GameRecordReader(File file, FileChannel channel, long size, MappedByteBuffer window){
+		this.file = file;
+		this.channel = channel;
+		this.size = size;
+		this.window = window;
+	}
+
+	/**
+	 * Maps a record file into memory.
+	 * @param file
+	 * @return the reader, before the first record
+	 * @throws IOException if the file can not be read or is no record file
+	 */
+	public static GameRecordReader open(File file) throws IOException{
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try{
+			long size = channel.size();
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAP_SIZE));
+			GameRecordWriter.checkHeader(window, size, file);
+			return new GameRecordReader(file, channel, size, window);
+		}catch(IOException | RuntimeException e){
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Prints statistics of a record file. Argument: the file.
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException{
+		File file = new File(args.length > 0 ? args[0] : "games.rec");
+		long start = System.nanoTime();
+		long games = 0;
+		long moves = 0;
+		long[] wins = new long[3];
+		try(GameRecordReader reader = open(file)){
+			while(reader.next()){
+				games++;
+				moves += reader.moveCount();
+				Color winner = reader.getWinner();
+				wins[winner == null ? 0 : winner.ordinal() + 1]++;
+			}
+		}
+		long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+		System.out.println(games + " games, " + moves + " moves, won by white " + wins[Color.WHITE.ordinal() + 1]
+				+ ", by black " + wins[Color.BLACK.ordinal() + 1] + ", without winner " + wins[0]);
+		System.out.println("Read " + file.length() / 1024 + " KB in " + millis + " ms (" + games * 1000 / millis + " games/s)");
+	}
+
+	/**
+	 * Moves to the next record.
+	 * @return false if there are no more records
+	 * @throws IOException if the next record is incomplete or can not be mapped
+	 */
+	public boolean next() throws IOException{
+		if(nextOffset >= size){
+			return false;
+		}
+		if(nextOffset + 4 > size){
+			throw new IOException("Incomplete record at " + nextOffset + " of " + file);
+		}
+		map(nextOffset, 4);
+		long recordSize = 4 + (window.getInt((int) (nextOffset - windowStart)) & 0xFFFFFFFFL);
+		if(recordSize < MOVES + 4 || nextOffset + recordSize > size){
+			throw new IOException("Incomplete record at " + nextOffset + " of " + file);
+		}
+		map(nextOffset, recordSize);
+		offset = nextOffset;
+		base = (int) (offset - windowStart);
+		nextOffset += recordSize;
+		return true;
+	}
+
+	/**
+	 * Maps the part of the file starting at a record, if the record is not mapped yet.
+	 * @param start
+	 * @param length
+	 * @throws IOException
+	 */
+	private void map(long start, long length) throws IOException{
+		if(start + length > windowStart + window.capacity()){
+			if(length > MAP_SIZE){
+				throw new IOException("Record at " + start + " of " + file + " is too large");
+			}
+			windowStart = start;
+			window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, MAP_SIZE));
+		}
+	}
+
+	private int base(){
+		if(offset < 0){
+			throw new IllegalStateException("No current record, call next() first");
+		}
+		return base;
+	}
+
+	/**
+	 * @return the offset of the current record in the file
+	 */
+	public long offset(){
+		base();
+		return offset;
+	}
+
+	public int getHeight(){
+		return window.get(base() + HEIGHT);
+	}
+
+	public int getWidth(){
+		return window.get(base() + WIDTH);
+	}
+
+	/**
+	 * @return the color of the winner, null if there is none
+	 */
+	public Color getWinner(){
+		int winner = window.get(base() + WINNER);
+		return winner == 0 ? null : winner == 1 ? Color.WHITE : Color.BLACK;
+	}
+
+	public long getSeed(){
+		return window.getLong(base() + SEED);
+	}
+
+	public double getProbabilitySameMover(){
+		return window.getDouble(base() + PROBABILITY);
+	}
+
+	/**
+	 * @return the time of each agent in ms
+	 */
+	public long getTimeLimit(){
+		return window.getInt(base() + TIME_LIMIT);
+	}
+
+	/**
+	 * @return the increment per move in ms
+	 */
+	public long getTimeInc(){
+		return window.getInt(base() + TIME_INC);
+	}
+
+	/**
+	 * The pawns of a color the game started with.
+	 * @param color
+	 * @return one bit per field
+	 */
+	public long getInitialPawns(Color color){
+		return window.getLong(base() + (color == Color.WHITE ? WHITE_PAWNS : BLACK_PAWNS));
+	}
+
+	public int moveCount(){
+		return window.getShort(base() + MOVE_COUNT) & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * @return the packed move, see {@link GameRecord}
+	 */
+	public short getPackedMove(int index){
+		if(index < 0 || index >= moveCount()){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + moveCount());
+		}
+		return window.getShort(base + MOVES + 2 * index);
+	}
+
+	/**
+	 * The alias of the agent playing a color.
+	 * @param color
+	 * @return
+	 */
+	public String getAgent(Color color){
+		int position = base() + MOVES + 2 * moveCount();
+		if(color == Color.BLACK){
+			position += 2 + (window.getShort(position) & 0xFFFF);
+		}
+		byte[] alias = new byte[window.getShort(position) & 0xFFFF];
+		for(int i = 0; i < alias.length; i++){
+			alias[i] = window.get(position + 2 + i);
+		}
+		return new String(alias, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * A copy of the current record.
+	 * @return
+	 */
+	public GameRecord record(){
+		short[] moves = new short[moveCount()];
+		for(int i = 0; i < moves.length; i++){
+			moves[i] = window.getShort(base + MOVES + 2 * i);
+		}
+		return new GameRecord(getAgent(Color.WHITE), getAgent(Color.BLACK), getSeed(), getProbabilitySameMover(),
+				getTimeLimit(), getTimeInc(), getHeight(), getWidth(), getInitialPawns(Color.WHITE),
+				getInitialPawns(Color.BLACK), getWinner(), moves);
+	}
+
+	/**
+	 * Closes the file. The mapping is released when it is no longer referenced.
+	 */
+	@Override
+	public void close() throws IOException{
+		channel.close();
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.record;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Game;
+
+/**
+ * Appends {@link GameRecord}s to a file, which can be read with {@link GameRecordReader}.
+ * The records are collected in a buffer and written in large blocks. Writing is thread-safe,
+ * so games played in parallel can share one writer.
+ *
+ * File format (big endian): magic and version (4 bytes each), followed by the records.
+ * A record starts with its size in bytes (4 bytes, without the size itself), then:
+ * height, width, winner (0 none, 1 white, 2 black) and a reserved byte, the seed (8 bytes),
+ * the probability that the player who moved moves again (8 bytes), time limit and increment in ms
+ * (4 bytes each), the white and black pawns of the initial board (8 bytes each),
+ * the number of moves (2 bytes, unsigned), the packed moves (2 bytes each, see {@link GameRecord})
+ * and the aliases of the white and the black agent (UTF-8, each preceded by its length in 2 bytes).
+ */
+public final class GameRecordWriter implements Closeable, Flushable {
+
+	static final int MAGIC = 0x50475231;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8;
+
+	// Offsets of the fields in a record
+	static final int HEIGHT = 4;
+	static final int WIDTH = 5;
+	static final int WINNER = 6;
+	static final int SEED = 8;
+	static final int PROBABILITY = 16;
+	static final int TIME_LIMIT = 24;
+	static final int TIME_INC = 28;
+	static final int WHITE_PAWNS = 32;
+	static final int BLACK_PAWNS = 40;
+	static final int MOVE_COUNT = 48;
+	static final int MOVES = 50;
+
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final int MAX_ALIAS_LENGTH = 0xFFFF;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private long records;
+
+	private GameRecordWriter(FileChannel channel){
+		this.channel = channel;
+	}
+
+	/**
+	 * Opens a file for appending records. The file is created if it does not exist.
+	 * @param file
+	 * @return
+	 * @throws IOException if the file can not be written or is no record file
+	 */
+	public static GameRecordWriter open(File file) throws IOException{
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			if(channel.size() == 0){
+				header.putInt(MAGIC).putInt(VERSION).flip();
+				write(channel, header);
+			}else{
+				while(header.hasRemaining() && channel.read(header, header.position()) >= 0){
+					// Read the whole header
+				}
+				checkHeader(header, channel.size(), file);
+				channel.position(channel.size());
+			}
+			return new GameRecordWriter(channel);
+		}catch(IOException | RuntimeException e){
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks the header of a record file.
+	 * @param header a buffer starting with the header
+	 * @param fileSize the size of the file
+	 * @param file
+	 * @throws IOException if the file is no record file of this version
+	 */
+	static void checkHeader(ByteBuffer header, long fileSize, File file) throws IOException{
+		if(fileSize < HEADER_SIZE || header.getInt(0) != MAGIC){
+			throw new IOException(file + " is no game record file");
+		}
+		if(header.getInt(4) != VERSION){
+			throw new IOException("Unsupported version " + header.getInt(4) + " of " + file);
+		}
+	}
+
+	/**
+	 * Appends the record of a played game.
+	 * @param game the game
+	 * @param result the result of {@link Game#playGame()}
+	 * @param seed the seed of the next mover rules of the game
+	 * @throws IOException
+	 */
+	public void write(Game game, Game.GameResult result, long seed) throws IOException{
+		write(GameRecord.of(game, result, seed));
+	}
+
+	/**
+	 * Appends a record. It is written to the file when the buffer is full, on {@link #flush()} or {@link #close()}.
+	 * @param record
+	 * @throws IOException
+	 */
+	public synchronized void write(GameRecord record) throws IOException{
+		byte[] white = record.getAgent(Color.WHITE).getBytes(StandardCharsets.UTF_8);
+		byte[] black = record.getAgent(Color.BLACK).getBytes(StandardCharsets.UTF_8);
+		if(white.length > MAX_ALIAS_LENGTH || black.length > MAX_ALIAS_LENGTH){
+			throw new IllegalArgumentException("Agent alias too long");
+		}
+		int size = MOVES + 2 * record.moveCount() + 2 + white.length + 2 + black.length;
+		ByteBuffer target = buffer;
+		if(size > buffer.remaining()){
+			flush();
+			if(size > buffer.capacity()){
+				target = ByteBuffer.allocate(size);
+			}
+		}
+		Color winner = record.getWinner();
+		target.putInt(size - 4)
+				.put((byte) record.getHeight())
+				.put((byte) record.getWidth())
+				.put((byte) (winner == null ? 0 : winner == Color.WHITE ? 1 : 2))
+				.put((byte) 0)
+				.putLong(record.getSeed())
+				.putDouble(record.getProbabilitySameMover())
+				.putInt((int) record.getTimeLimit())
+				.putInt((int) record.getTimeInc())
+				.putLong(record.getInitialPawns(Color.WHITE))
+				.putLong(record.getInitialPawns(Color.BLACK))
+				.putShort((short) record.moveCount());
+		for(int i = 0; i < record.moveCount(); i++){
+			target.putShort(record.getPackedMove(i));
+		}
+		target.putShort((short) white.length).put(white);
+		target.putShort((short) black.length).put(black);
+		if(target != buffer){
+			target.flip();
+			write(channel, target);
+		}
+		records++;
+	}
+
+	/**
+	 * @return the number of records written by this writer
+	 */
+	public synchronized long records(){
+		return records;
+	}
+
+	/**
+	 * Writes the buffered records to the file.
+	 */
+	@Override
+	public synchronized void flush() throws IOException{
+		buffer.flip();
+		write(channel, buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the buffered records and closes the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException{
+		try{
+			flush();
+		}finally{
+			channel.close();
+		}
+	}
+
+	private static void write(FileChannel channel, ByteBuffer data) throws IOException{
+		while(data.hasRemaining()){
+			channel.write(data);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.tablebase;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+
+/**
+ * Numbers the pawn positions of one material (number of white and black pawns) on a board geometry.
+ * White pawns can be on every row but the last one (they would have won), black pawns on every row but the first one.
+ * The pawns of a color are numbered with the combinatorial number system: a set of fields c1 < c2 < ... < ck
+ * (counted from the first allowed field) has the number C(c1, 1) + C(c2, 2) + ... + C(ck, k),
+ * which is also the position of the set among all sets ordered by their occupancy word.
+ * A position has the index (white number * black sets + black number) * 2 + (1 if black moves next).
+ */
+final class MaterialIndex {
+
+	private static final long[][] BINOMIALS = new long[Long.SIZE + 1][Long.SIZE + 1];
+
+	static{
+		for(int n = 0; n <= Long.SIZE; n++){
+			BINOMIALS[n][0] = 1;
+			for(int k = 1; k <= n; k++){
+				BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+			}
+		}
+	}
+
+	final int height;
+	final int width;
+	final int whitePawns;
+	final int blackPawns;
+	// Fields a pawn of a color may be on
+	final int fields;
+	final long whiteSets;
+	final long blackSets;
+
+	MaterialIndex(int height, int width, int whitePawns, int blackPawns){
+		this.height = height;
+		this.width = width;
+		this.whitePawns = whitePawns;
+		this.blackPawns = blackPawns;
+		this.fields = (height - 1) * width;
+		this.whiteSets = BINOMIALS[fields][whitePawns];
+		this.blackSets = BINOMIALS[fields][blackPawns];
+	}
+
+	/**
+	 * The number of indexes, including the ones of impossible positions (pawns on the same field).
+	 * @return
+	 */
+	long size(){
+		return whiteSets * blackSets * 2;
+	}
+
+	/**
+	 * The index of a position. The position must have the material of this index and no pawn on its last row.
+	 * @param white the white pawns, one bit per field
+	 * @param black the black pawns, one bit per field
+	 * @param nextMover
+	 * @return
+	 */
+	long index(long white, long black, Color nextMover){
+		long position = rank(white) * blackSets + rank(black >>> width);
+		return position * 2 + (nextMover == Color.BLACK ? 1 : 0);
+	}
+
+	/**
+	 * The number of a set of fields.
+	 * @param set the fields, counted from the first allowed field
+	 * @return
+	 */
+	static long rank(long set){
+		long rank = 0;
+		int k = 1;
+		for(long bits = set; bits != 0; bits &= bits - 1){
+			rank += BINOMIALS[Long.numberOfTrailingZeros(bits)][k++];
+		}
+		return rank;
+	}
+
+	/**
+	 * All sets of the given size of the first n fields, ordered by their number.
+	 * @param n
+	 * @param k
+	 * @return
+	 */
+	static long[] sets(int n, int k){
+		long[] sets = new long[(int) BINOMIALS[n][k]];
+		if(k == 0){
+			return sets;
+		}
+		// The next larger word with the same number of bits (Gosper's hack)
+		long set = (1L << k) - 1;
+		for(int i = 0; i < sets.length; i++){
+			sets[i] = set;
+			if(i + 1 < sets.length){
+				long lowest = set & -set;
+				long ripple = set + lowest;
+				set = ripple | (((set ^ ripple) >>> 2) / lowest);
+			}
+		}
+		return sets;
+	}
+}
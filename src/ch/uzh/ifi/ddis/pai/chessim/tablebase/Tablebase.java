@@ -0,0 +1,200 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.tablebase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.MoveTables;
+
+/**
+ * Read-only access to the tables written by {@link TablebaseGenerator}.
+ * The tables are mapped into memory, so opening them is cheap and they are shared by all users.
+ * Probing is thread-safe.
+ *
+ * The values are exact for games in which the players move alternately.
+ * A value is 0 if the position is unknown, otherwise it tells if the next mover wins or loses
+ * and the number of moves (plies) until the game ends with best play of both players.
+ */
+public final class Tablebase {
+
+	/**
+	 * The position is not in the tablebase.
+	 */
+	public static final int UNKNOWN = 0;
+
+	/**
+	 * Flag of the positions the next mover wins.
+	 */
+	public static final int WIN = 0x80;
+
+	/**
+	 * Flag of the positions the next mover loses.
+	 */
+	public static final int LOSS = 0x40;
+
+	/**
+	 * The bits of the distance. Longer distances are stored as the maximum.
+	 */
+	public static final int DISTANCE_MASK = 0x3F;
+
+	// File format: magic, height, width, white pawns, black pawns (one byte each), then one byte per index
+	static final int MAGIC = 0x50544231;
+	static final int HEADER_SIZE = 8;
+
+	private final MoveTables tables;
+	private final int maxPawns;
+	// Tables by number of white and black pawns, null if missing
+	private final ByteBuffer[][] values;
+	private final MaterialIndex[][] indexes;
+
+	private Tablebase(MoveTables tables, int maxPawns, ByteBuffer[][] values, MaterialIndex[][] indexes){
+		this.tables = tables;
+		this.maxPawns = maxPawns;
+		this.values = values;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Maps all tables of a board geometry found in a directory.
+	 * @param directory
+	 * @param height
+	 * @param width
+	 * @return the tablebase, empty if there are no tables
+	 * @throws IOException if a table can not be read or is not a table of the geometry
+	 */
+	public static Tablebase open(File directory, int height, int width) throws IOException{
+		int maxPawns = 0;
+		// Pawns of a color are on all rows but one
+		int fields = Math.max(0, (height - 1) * width);
+		ByteBuffer[][] values = new ByteBuffer[fields + 1][fields + 1];
+		MaterialIndex[][] indexes = new MaterialIndex[fields + 1][fields + 1];
+		for(int whitePawns = 0; whitePawns <= fields; whitePawns++){
+			for(int blackPawns = 0; blackPawns <= fields; blackPawns++){
+				File file = new File(directory, fileName(height, width, whitePawns, blackPawns));
+				if(!file.isFile()){
+					continue;
+				}
+				MaterialIndex index = new MaterialIndex(height, width, whitePawns, blackPawns);
+				values[whitePawns][blackPawns] = map(file, index);
+				indexes[whitePawns][blackPawns] = index;
+				maxPawns = Math.max(maxPawns, Math.max(whitePawns, blackPawns));
+			}
+		}
+		return new Tablebase(MoveTables.of(height, width), maxPawns, values, indexes);
+	}
+
+	private static MappedByteBuffer map(File file, MaterialIndex index) throws IOException{
+		try(RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel()){
+			if(channel.size() != HEADER_SIZE + index.size()){
+				throw new IOException("Unexpected size of " + file);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.getInt(0) != MAGIC || buffer.get(4) != index.height || buffer.get(5) != index.width
+					|| buffer.get(6) != index.whitePawns || buffer.get(7) != index.blackPawns){
+				throw new IOException(file + " is not a tablebase of " + index.height + "x" + index.width);
+			}
+			return buffer;
+		}
+	}
+
+	/**
+	 * The name of the file of a table.
+	 * @param height
+	 * @param width
+	 * @param whitePawns
+	 * @param blackPawns
+	 * @return
+	 */
+	static String fileName(int height, int width, int whitePawns, int blackPawns){
+		return "pawns-" + height + "x" + width + "-" + whitePawns + "v" + blackPawns + ".ptb";
+	}
+
+	/**
+	 * The largest number of pawns of one color in a table.
+	 * @return
+	 */
+	public int maxPawns(){
+		return maxPawns;
+	}
+
+	/**
+	 * The value of a pawn position.
+	 * @param white the white pawns, one bit per field
+	 * @param black the black pawns, one bit per field
+	 * @param nextMover
+	 * @return the value, UNKNOWN if the position is not in the tablebase
+	 */
+	public int probe(long white, long black, Color nextMover){
+		int whitePawns = Long.bitCount(white);
+		int blackPawns = Long.bitCount(black);
+		if(whitePawns > maxPawns || blackPawns > maxPawns){
+			return UNKNOWN;
+		}
+		ByteBuffer table = values[whitePawns][blackPawns];
+		if(table == null || ((white & tables.lastRow(Color.WHITE)) | (black & tables.lastRow(Color.BLACK))) != 0){
+			return UNKNOWN;
+		}
+		// Tables are smaller than 2 GB, as they are mapped as a whole
+		int index = (int) indexes[whitePawns][blackPawns].index(white, black, nextMover);
+		return table.get(HEADER_SIZE + index) & 0xFF;
+	}
+
+	/**
+	 * The value of a board. Boards with other figures than pawns are not in the tablebase.
+	 * @param board
+	 * @param nextMover
+	 * @return the value, UNKNOWN if the board is not in the tablebase
+	 */
+	public int probe(Board board, Color nextMover){
+		if(board.moveTables() != tables){
+			return UNKNOWN;
+		}
+		long white = board.pawns(Color.WHITE);
+		long black = board.pawns(Color.BLACK);
+		if(white != board.occupancy(Color.WHITE) || black != board.occupancy(Color.BLACK)){
+			return UNKNOWN;
+		}
+		return probe(white, black, nextMover);
+	}
+
+	/**
+	 * @param value a probed value
+	 * @return true if the next mover wins
+	 */
+	public static boolean isWin(int value){
+		return (value & WIN) != 0;
+	}
+
+	/**
+	 * @param value a probed value
+	 * @return true if the next mover loses
+	 */
+	public static boolean isLoss(int value){
+		return (value & LOSS) != 0;
+	}
+
+	/**
+	 * @param value a probed value
+	 * @return the number of moves until the game ends
+	 */
+	public static int distance(int value){
+		return value & DISTANCE_MASK;
+	}
+}
@@ -0,0 +1,254 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.tablebase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.stream.IntStream;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.MoveTables;
+
+/**
+ * Solves all pawn positions with up to a given number of pawns per color by retrograde analysis
+ * and writes one table per material, which can be read with {@link Tablebase}.
+ *
+ * A pawn game can not be drawn, and every move brings a pawn closer to the last row.
+ * The positions of a material are therefore solved by progress (the rows the pawns have advanced in total),
+ * starting with the most advanced positions: a move leads either to a more advanced position of the same material,
+ * which is already solved, or (capturing) to a table with less pawns, which is solved before.
+ * The positions of one progress level do not depend on each other and are solved in parallel.
+ */
+public class TablebaseGenerator {
+
+	private final MoveTables tables;
+	private final int maxPawns;
+	// Solved tables by number of white and black pawns
+	private final byte[][][] values;
+	private final MaterialIndex[][] indexes;
+
+	/**
+	 * @param height
+	 * @param width
+	 * @param maxPawns the maximal number of pawns per color
+	 */
+	public TablebaseGenerator(int height, int width, int maxPawns){
+		if(height < 2 || height * width > Board.MAX_FIELDS || maxPawns < 0 || maxPawns > (height - 1) * width){
+			throw new IllegalArgumentException();
+		}
+		this.tables = MoveTables.of(height, width);
+		this.maxPawns = maxPawns;
+		this.values = new byte[maxPawns + 1][maxPawns + 1][];
+		this.indexes = new MaterialIndex[maxPawns + 1][maxPawns + 1];
+		for(int whitePawns = 0; whitePawns <= maxPawns; whitePawns++){
+			for(int blackPawns = 0; blackPawns <= maxPawns; blackPawns++){
+				MaterialIndex index = new MaterialIndex(height, width, whitePawns, blackPawns);
+				if(index.size() > Integer.MAX_VALUE - Tablebase.HEADER_SIZE){
+					throw new IllegalArgumentException("The table of " + whitePawns + " against " + blackPawns + " pawns is too large");
+				}
+				indexes[whitePawns][blackPawns] = index;
+			}
+		}
+	}
+
+	/**
+	 * Generates the tables.
+	 * Arguments: the directory to write to, the maximal number of pawns per color (default 2)
+	 * and the height and width of the board (default 8).
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException{
+		File directory = new File(args.length > 0 ? args[0] : "tablebase");
+		int maxPawns = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		int height = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+		int width = args.length > 3 ? Integer.parseInt(args[3]) : height;
+		if(!directory.isDirectory() && !directory.mkdirs()){
+			throw new IOException("Can not create " + directory);
+		}
+		long start = System.nanoTime();
+		TablebaseGenerator generator = new TablebaseGenerator(height, width, maxPawns);
+		generator.solve();
+		generator.write(directory);
+		System.out.println("Solved " + height + "x" + width + " up to " + maxPawns + " pawns per color in "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+	}
+
+	/**
+	 * Solves all tables, the ones with less pawns first.
+	 */
+	public void solve(){
+		for(int pawns = 0; pawns <= 2 * maxPawns; pawns++){
+			for(int whitePawns = Math.max(0, pawns - maxPawns); whitePawns <= Math.min(pawns, maxPawns); whitePawns++){
+				solve(indexes[whitePawns][pawns - whitePawns]);
+			}
+		}
+	}
+
+	private void solve(MaterialIndex index){
+		byte[] table = new byte[(int) index.size()];
+		values[index.whitePawns][index.blackPawns] = table;
+
+		// White sets are numbered from the first field, black sets from the second row
+		long[] whiteSets = MaterialIndex.sets(index.fields, index.whitePawns);
+		long[] blackSets = MaterialIndex.sets(index.fields, index.blackPawns);
+		for(int i = 0; i < blackSets.length; i++){
+			blackSets[i] <<= index.width;
+		}
+
+		// Black sets by progress, so every level is a list of pairs
+		int maxWhiteProgress = index.whitePawns * (index.height - 2);
+		int maxBlackProgress = index.blackPawns * (index.height - 2);
+		int[] whiteProgress = new int[whiteSets.length];
+		for(int i = 0; i < whiteSets.length; i++){
+			whiteProgress[i] = progress(whiteSets[i], Color.WHITE);
+		}
+		int[][] blackByProgress = new int[maxBlackProgress + 1][];
+		int[] counts = new int[maxBlackProgress + 1];
+		for(long set : blackSets){
+			counts[progress(set, Color.BLACK)]++;
+		}
+		for(int progress = 0; progress <= maxBlackProgress; progress++){
+			blackByProgress[progress] = new int[counts[progress]];
+			counts[progress] = 0;
+		}
+		for(int i = 0; i < blackSets.length; i++){
+			int progress = progress(blackSets[i], Color.BLACK);
+			blackByProgress[progress][counts[progress]++] = i;
+		}
+
+		for(int level = maxWhiteProgress + maxBlackProgress; level >= 0; level--){
+			final int currentLevel = level;
+			IntStream.range(0, whiteSets.length).parallel().forEach(whiteIndex -> {
+				int blackProgress = currentLevel - whiteProgress[whiteIndex];
+				if(blackProgress < 0 || blackProgress > maxBlackProgress){
+					return;
+				}
+				long white = whiteSets[whiteIndex];
+				for(int blackIndex : blackByProgress[blackProgress]){
+					long black = blackSets[blackIndex];
+					if((white & black) != 0){
+						continue;
+					}
+					long position = ((long) whiteIndex * blackSets.length + blackIndex) * 2;
+					table[(int) position] = (byte) value(white, black, Color.WHITE);
+					table[(int) position + 1] = (byte) value(white, black, Color.BLACK);
+				}
+			});
+		}
+	}
+
+	/**
+	 * The rows the pawns of a color have advanced in total.
+	 * @param pawns
+	 * @param color
+	 * @return
+	 */
+	private int progress(long pawns, Color color){
+		int progress = 0;
+		for(long bits = pawns; bits != 0; bits &= bits - 1){
+			int row = Long.numberOfTrailingZeros(bits) / tables.width;
+			progress += color == Color.WHITE ? row : tables.height - 1 - row;
+		}
+		return progress;
+	}
+
+	/**
+	 * Solves a position from the values of its successors.
+	 * @param white
+	 * @param black
+	 * @param nextMover
+	 * @return
+	 */
+	private int value(long white, long black, Color nextMover){
+		long own = nextMover == Color.WHITE ? white : black;
+		long opponents = nextMover == Color.WHITE ? black : white;
+		long empty = tables.boardMask() & ~(white | black);
+		int forward = tables.forwardOffset(nextMover);
+
+		long pushes = tables.pushTargets(nextMover, own, empty);
+		long leftCaptures = tables.leftCaptureTargets(nextMover, own, opponents);
+		long rightCaptures = tables.rightCaptureTargets(nextMover, own, opponents);
+		if(((pushes | leftCaptures | rightCaptures) & tables.lastRow(nextMover)) != 0){
+			// Reaching the last row wins at once
+			return Tablebase.WIN | 1;
+		}
+
+		// Shortest win and longest loss over all moves
+		int win = Integer.MAX_VALUE;
+		int loss = -1;
+		for(int type = 0; type < 3; type++){
+			long targets = type == 0 ? pushes : type == 1 ? leftCaptures : rightCaptures;
+			int step = type == 0 ? forward : type == 1 ? forward - 1 : forward + 1;
+			for(long bits = targets; bits != 0; bits &= bits - 1){
+				int to = Long.numberOfTrailingZeros(bits);
+				long toBit = 1L << to;
+				long moved = own ^ (1L << (to - step)) ^ toBit;
+				long remaining = opponents & ~toBit;
+				int successor = nextMover == Color.WHITE
+						? lookup(moved, remaining, Color.BLACK)
+						: lookup(remaining, moved, Color.WHITE);
+				int distance = Tablebase.distance(successor);
+				if(Tablebase.isLoss(successor)){
+					win = Math.min(win, distance);
+				}else{
+					loss = Math.max(loss, distance);
+				}
+			}
+		}
+		if(win != Integer.MAX_VALUE){
+			return Tablebase.WIN | Math.min(win + 1, Tablebase.DISTANCE_MASK);
+		}
+		// Without moves the next mover has lost
+		return Tablebase.LOSS | Math.min(loss + 1, Tablebase.DISTANCE_MASK);
+	}
+
+	private int lookup(long white, long black, Color nextMover){
+		int whitePawns = Long.bitCount(white);
+		int blackPawns = Long.bitCount(black);
+		long index = indexes[whitePawns][blackPawns].index(white, black, nextMover);
+		return values[whitePawns][blackPawns][(int) index] & 0xFF;
+	}
+
+	/**
+	 * Writes the solved tables, one file per material.
+	 * @param directory
+	 * @throws IOException
+	 */
+	public void write(File directory) throws IOException{
+		for(int whitePawns = 0; whitePawns <= maxPawns; whitePawns++){
+			for(int blackPawns = 0; blackPawns <= maxPawns; blackPawns++){
+				byte[] table = values[whitePawns][blackPawns];
+				if(table == null){
+					throw new IllegalStateException("Tables are not solved");
+				}
+				File file = new File(directory, Tablebase.fileName(tables.height, tables.width, whitePawns, blackPawns));
+				try(RandomAccessFile out = new RandomAccessFile(file, "rw"); FileChannel channel = out.getChannel()){
+					channel.truncate(0);
+					ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_SIZE);
+					header.putInt(Tablebase.MAGIC).put((byte) tables.height).put((byte) tables.width)
+							.put((byte) whitePawns).put((byte) blackPawns).flip();
+					channel.write(header);
+					ByteBuffer data = ByteBuffer.wrap(table);
+					while(data.hasRemaining()){
+						channel.write(data);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.tablebase;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.History;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.WinnerRules;
+
+/**
+ * Adjudicates games as soon as their position is in the tablebase: the player who wins the position with best play
+ * is declared the winner. Other positions are decided by the wrapped rules.
+ * Only use it for games in which the players move alternately, as the tablebase assumes this.
+ */
+public class TablebaseWinner implements WinnerRules {
+
+	private final WinnerRules rules;
+	private final Tablebase tablebase;
+
+	/**
+	 * @param rules the rules of the game, e.g. {@link ch.uzh.ifi.ddis.pai.chessim.game.randomMover.PawnChessWinner}
+	 * @param tablebase
+	 */
+	public TablebaseWinner(WinnerRules rules, Tablebase tablebase){
+		this.rules = rules;
+		this.tablebase = tablebase;
+	}
+
+	/* (non-Javadoc)
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.WinnerRules#winner(ch.uzh.ifi.ddis.pai.chessim.game.Board, ch.uzh.ifi.ddis.pai.chessim.game.History, ch.uzh.ifi.ddis.pai.chessim.game.Color)
+	 */
+	@Override
+	public Color winner(Board board, History history, Color nextMover) {
+		return tablebaseWinner(rules.winner(board, history, nextMover), board, nextMover);
+	}
+	
+	/* (non-Javadoc)
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.WinnerRules#winnerAfterMove(ch.uzh.ifi.ddis.pai.chessim.game.Board, ch.uzh.ifi.ddis.pai.chessim.game.History, ch.uzh.ifi.ddis.pai.chessim.game.Move, ch.uzh.ifi.ddis.pai.chessim.game.Color)
+	 */
+	@Override
+	public Color winnerAfterMove(Board board, History history, Move lastMove, Color nextMover) {
+		return tablebaseWinner(rules.winnerAfterMove(board, history, lastMove, nextMover), board, nextMover);
+	}
+	
+	/**
+	 * @param winner the winner according to the rules, null if none
+	 * @param board
+	 * @param nextMover
+	 * @return the winner according to the rules or else to the tablebase, null if none
+	 */
+	private Color tablebaseWinner(Color winner, Board board, Color nextMover){
+		if(winner != null){
+			return winner;
+		}
+		int value = tablebase.probe(board, nextMover);
+		if(Tablebase.isWin(value)){
+			return nextMover;
+		}else if(Tablebase.isLoss(value)){
+			return nextMover.getOtherColor();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,28 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.tournament;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Agent;
+
+/**
+ * Creates the agents of a tournament participant. 
+ * Every game gets new agents, as agents may keep state between the moves of a game.
+ */
+public interface AgentFactory {
+
+	/**
+	 * Creates a new agent, which is used for one game only.
+	 * @return
+	 */
+	Agent newAgent();
+}
@@ -0,0 +1,112 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.tournament;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.AgentMetrics;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.GameMetrics;
+
+/**
+ * The games of two participants of a tournament against each other.
+ */
+public final class PairingResult {
+	
+	private final String first;
+	private final String second;
+	private int firstWins;
+	private int secondWins;
+	// Wins of the participants when playing white
+	private int firstWhiteWins;
+	private int secondWhiteWins;
+	// Timing of the participants in all games
+	private final AgentMetrics firstMetrics = new AgentMetrics();
+	private final AgentMetrics secondMetrics = new AgentMetrics();
+	
+	PairingResult(String first, String second){
+		this.first = first;
+		this.second = second;
+	}
+	
+	/**
+	 * Counts a finished game.
+	 * @param winner the name of the winner
+	 * @param white the name of the participant who played white
+	 * @param metrics the timing of the game
+	 */
+	synchronized void addGame(String winner, String white, GameMetrics metrics){
+		boolean firstWasWhite = white.equals(first);
+		firstMetrics.add(metrics.get(firstWasWhite ? Color.WHITE : Color.BLACK));
+		secondMetrics.add(metrics.get(firstWasWhite ? Color.BLACK : Color.WHITE));
+		boolean winnerWasWhite = winner.equals(white);
+		if(winner.equals(first)){
+			firstWins++;
+			if(winnerWasWhite) firstWhiteWins++;
+		}else{
+			secondWins++;
+			if(winnerWasWhite) secondWhiteWins++;
+		}
+	}
+
+	public String getFirst() {
+		return first;
+	}
+
+	public String getSecond() {
+		return second;
+	}
+
+	public synchronized int getFirstWins() {
+		return firstWins;
+	}
+
+	public synchronized int getSecondWins() {
+		return secondWins;
+	}
+	
+	/**
+	 * @return the games the first participant won with the white pawns
+	 */
+	public synchronized int getFirstWhiteWins() {
+		return firstWhiteWins;
+	}
+	
+	/**
+	 * @return the games the second participant won with the white pawns
+	 */
+	public synchronized int getSecondWhiteWins() {
+		return secondWhiteWins;
+	}
+
+	/**
+	 * Adds the timing of a participant in the games of this pairing.
+	 * @param name the name of the participant
+	 * @param metrics receives the timing
+	 */
+	synchronized void addMetrics(String name, AgentMetrics metrics) {
+		if(name.equals(first)){
+			metrics.add(firstMetrics);
+		}else if(name.equals(second)){
+			metrics.add(secondMetrics);
+		}
+	}
+
+	public synchronized int getGames() {
+		return firstWins + secondWins;
+	}
+	
+	@Override
+	public synchronized String toString(){
+		return first + " - " + second + ": " + firstWins + " - " + secondWins 
+				+ " (white wins " + firstWhiteWins + " - " + secondWhiteWins + ")";
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.tournament;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Agent;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Game;
+import ch.uzh.ifi.ddis.pai.chessim.game.Game.GameResult;
+import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.RandomMoverPawnGame;
+
+/**
+ * Plays many {@link RandomMoverPawnGame}s between participants, without display, on a pool of worker threads.
+ * Every game has its own game instance, new agents from the factories of the participants 
+ * and its own seed for the next mover rules, derived from the seed of the tournament.
+ * The participants of a pairing play white alternately.
+ * 
+ * As the agents play with time limits, the worker threads should not use more processors than available 
+ * (including the threads the agents use for their search).
+ */
+public class Tournament {
+	
+	private final long timeLimit;
+	private final long timeInc;
+	private final double probabilitySameMover;
+	private final long seed;
+	private final int threads;
+	private final Map<String, AgentFactory> participants = new LinkedHashMap<>();
+	
+	/**
+	 * @param timeLimit the time of every agent per game (in ms)
+	 * @param timeInc the time added per move (in ms)
+	 * @param probabilitySameMover the probability that the player who moved moves again
+	 * @param seed the seed of the game seeds
+	 * @param threads the number of games played at the same time
+	 */
+	public Tournament(long timeLimit, long timeInc, double probabilitySameMover, long seed, int threads){
+		if(threads < 1){
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		this.timeLimit = timeLimit;
+		this.timeInc = timeInc;
+		this.probabilitySameMover = probabilitySameMover;
+		this.seed = seed;
+		this.threads = threads;
+	}
+	
+	/**
+	 * Adds a participant.
+	 * @param name the unique name of the participant
+	 * @param factory creates the agent of every game of the participant
+	 */
+	public void addParticipant(String name, AgentFactory factory){
+		if(participants.containsKey(name)){
+			throw new IllegalArgumentException("There is already a participant " + name);
+		}
+		participants.put(name, factory);
+	}
+	
+	/**
+	 * Every participant plays against every other one.
+	 * @param gamesPerPairing
+	 * @return
+	 */
+	public TournamentResult roundRobin(int gamesPerPairing){
+		List<PairingResult> pairings = new ArrayList<>();
+		List<String> names = new ArrayList<>(participants.keySet());
+		for(int i = 0; i < names.size(); i++){
+			for(int j = i + 1; j < names.size(); j++){
+				pairings.add(new PairingResult(names.get(i), names.get(j)));
+			}
+		}
+		return play(pairings, gamesPerPairing);
+	}
+	
+	/**
+	 * One participant plays against all others.
+	 * @param challenger the name of the participant
+	 * @param gamesPerPairing
+	 * @return
+	 */
+	public TournamentResult gauntlet(String challenger, int gamesPerPairing){
+		if(!participants.containsKey(challenger)){
+			throw new IllegalArgumentException("There is no participant " + challenger);
+		}
+		List<PairingResult> pairings = new ArrayList<>();
+		for(String name : participants.keySet()){
+			if(!name.equals(challenger)){
+				pairings.add(new PairingResult(challenger, name));
+			}
+		}
+		return play(pairings, gamesPerPairing);
+	}
+	
+	private TournamentResult play(List<PairingResult> pairings, int gamesPerPairing){
+		long start = System.nanoTime();
+		ExecutorService workers = Executors.newFixedThreadPool(threads);
+		try{
+			List<Future<?>> games = new ArrayList<>();
+			int gameNumber = 0;
+			for(int game = 0; game < gamesPerPairing; game++){
+				for(PairingResult pairing : pairings){
+					boolean firstIsWhite = game % 2 == 0;
+					String white = firstIsWhite ? pairing.getFirst() : pairing.getSecond();
+					String black = firstIsWhite ? pairing.getSecond() : pairing.getFirst();
+					long gameSeed = gameSeed(seed, gameNumber++);
+					games.add(workers.submit(() -> playGame(pairing, white, black, gameSeed)));
+				}
+			}
+			for(Future<?> game : games){
+				game.get();
+			}
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Tournament interrupted", e);
+		}catch(ExecutionException e){
+			throw new IllegalStateException("A game could not be played", e.getCause());
+		}finally{
+			workers.shutdownNow();
+		}
+		return new TournamentResult(pairings, System.nanoTime() - start);
+	}
+	
+	private void playGame(PairingResult pairing, String white, String black, long gameSeed){
+		Agent whiteAgent = participants.get(white).newAgent();
+		Agent blackAgent = participants.get(black).newAgent();
+		Game game = new RandomMoverPawnGame(timeLimit, timeInc, whiteAgent, blackAgent, probabilitySameMover, gameSeed);
+		GameResult result = game.playGame();
+		pairing.addGame(result.getWinnersColour() == Color.WHITE ? white : black, white, result.getMetrics());
+	}
+	
+	/**
+	 * The seed of a game: the seed of the tournament and the number of the game, mixed (SplitMix64),
+	 * so games get unrelated seeds even for consecutive tournament seeds.
+	 * @param seed
+	 * @param gameNumber
+	 * @return
+	 */
+	static long gameSeed(long seed, int gameNumber){
+		long z = seed + (gameNumber + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.tournament;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.AgentMetrics;
+
+/**
+ * The outcome of a tournament: the results of all pairings, the timing of the participants and the throughput.
+ */
+public final class TournamentResult {
+	
+	private final List<PairingResult> pairings;
+	private final long elapsedNanos;
+	
+	TournamentResult(List<PairingResult> pairings, long elapsedNanos){
+		this.pairings = Collections.unmodifiableList(new ArrayList<>(pairings));
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	public List<PairingResult> getPairings(){
+		return pairings;
+	}
+	
+	/**
+	 * @return the number of games played
+	 */
+	public int getGames(){
+		int games = 0;
+		for(PairingResult pairing : pairings){
+			games += pairing.getGames();
+		}
+		return games;
+	}
+	
+	/**
+	 * The games a participant won in all pairings.
+	 * @param name
+	 * @return
+	 */
+	public int getWins(String name){
+		int wins = 0;
+		for(PairingResult pairing : pairings){
+			if(pairing.getFirst().equals(name)){
+				wins += pairing.getFirstWins();
+			}else if(pairing.getSecond().equals(name)){
+				wins += pairing.getSecondWins();
+			}
+		}
+		return wins;
+	}
+	
+	/**
+	 * @return the names of the participants, in the order of the pairings
+	 */
+	public Set<String> getParticipants(){
+		Set<String> names = new LinkedHashSet<>();
+		for(PairingResult pairing : pairings){
+			names.add(pairing.getFirst());
+			names.add(pairing.getSecond());
+		}
+		return names;
+	}
+	
+	/**
+	 * The timing of a participant in all its games.
+	 * @param name
+	 * @return
+	 */
+	public AgentMetrics getMetrics(String name){
+		AgentMetrics metrics = new AgentMetrics();
+		for(PairingResult pairing : pairings){
+			pairing.addMetrics(name, metrics);
+		}
+		return metrics;
+	}
+	
+	/**
+	 * @return the wall clock time the tournament took, in ms
+	 */
+	public long getElapsedMillis(){
+		return elapsedNanos / 1000000;
+	}
+	
+	/**
+	 * @return the games played per second of wall clock time
+	 */
+	public double getGamesPerSecond(){
+		return elapsedNanos == 0 ? 0.0 : getGames() * 1e9 / elapsedNanos;
+	}
+	
+	@Override
+	public String toString(){
+		StringBuilder builder = new StringBuilder();
+		for(PairingResult pairing : pairings){
+			builder.append(pairing).append('\n');
+		}
+		for(String name : getParticipants()){
+			builder.append(name).append(": ").append(getMetrics(name)).append('\n');
+		}
+		builder.append(getGames()).append(" games in ").append(getElapsedMillis()).append(" ms (")
+			.append(String.format("%.2f", getGamesPerSecond())).append(" games/s)");
+		return builder.toString();
+	}
+	
+	/**
+	 * The result as a JSON object: games, elapsed time, games per second, 
+	 * and per participant the wins and the timing (see {@link AgentMetrics#toJson()}).
+	 * @return
+	 */
+	public String toJson(){
+		StringBuilder builder = new StringBuilder();
+		builder.append("{\"games\":").append(getGames())
+			.append(",\"elapsedMillis\":").append(getElapsedMillis())
+			.append(",\"gamesPerSecond\":").append(String.format(Locale.ROOT, "%.3f", getGamesPerSecond()))
+			.append(",\"participants\":{");
+		String separator = "";
+		for(String name : getParticipants()){
+			builder.append(separator).append('"').append(name.replace("\\", "\\\\").replace("\"", "\\\""))
+				.append("\":{\"wins\":").append(getWins(name))
+				.append(",\"timing\":").append(getMetrics(name).toJson()).append('}');
+			separator = ",";
+		}
+		return builder.append("}}").toString();
+	}
+}
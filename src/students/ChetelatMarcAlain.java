@@ -1,158 +1,188 @@
 package students;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
-
-import ch.uzh.ifi.ddis.pai.chessim.game.Agent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.AgentContext;
 import ch.uzh.ifi.ddis.pai.chessim.game.Board;
 import ch.uzh.ifi.ddis.pai.chessim.game.Color;
-import ch.uzh.ifi.ddis.pai.chessim.game.Coordinates;
-import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
+import ch.uzh.ifi.ddis.pai.chessim.game.ContextAwareAgent;
+import ch.uzh.ifi.ddis.pai.chessim.game.CooperativeAgent;
+import ch.uzh.ifi.ddis.pai.chessim.game.Deadline;
 import ch.uzh.ifi.ddis.pai.chessim.game.History;
 import ch.uzh.ifi.ddis.pai.chessim.game.Move;
-import ch.uzh.ifi.ddis.pai.chessim.game.WinnerRules;
-import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.PawnChessWinner;
-import students.chetelatmarcalain.game.CustomBoard;
+import ch.uzh.ifi.ddis.pai.chessim.game.PonderingAgent;
+import ch.uzh.ifi.ddis.pai.chessim.tablebase.Tablebase;
+import students.chetelatmarcalain.book.OpeningBook;
+import students.chetelatmarcalain.game.SearchPosition;
+import students.chetelatmarcalain.search.Searcher;
+import students.chetelatmarcalain.search.TranspositionTable;
+
+public class ChetelatMarcAlain implements ContextAwareAgent, CooperativeAgent, PonderingAgent {
+
+	// Level of the fixed depth search (public minimax)
+	private final int FIXED_LEVEL = 4;
+
+	// Time management (times in ms). The time left besides the increment
+	// of this move is the bank. Every move plans the increment and a share
+	// of the bank, and may overrun it only by a share of the bank, so the
+	// time per move shrinks with the bank and the bank never runs out.
+	// Share of the bank planned for a move (expected number of own moves
+	// until the game ends)
+	private final int MOVES_TO_GO = 20;
+	// Time kept back for the overhead of the game
+	private final long SAFETY_MARGIN = 30;
+	// The search is aborted after this multiple of the planned time
+	private final int HARD_LIMIT_FACTOR = 4;
+	// The hard limit uses at most 1 / BANK_SHARE of the bank
+	private final int BANK_SHARE = 5;
+
+	// Size of the transposition table if not configured
+	private static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+	// Idle helper threads are ended after this time (s)
+	private static final long HELPER_KEEP_ALIVE = 10;
+
+	private AgentContext context;
+
+	// Probability that the player who moved moves again
+	private double probabilitySameMover;
+
+	private final TranspositionTable transpositionTable;
+
+	// Searcher of the thread calling nextMove, its result is played
+	private final Searcher searcher;
 
-public class ChetelatMarcAlain implements Agent {
+	// Searchers of the helper threads (lazy SMP), they only fill the shared
+	// transposition table
+	private final List<Searcher> helpers = new ArrayList<>();
 
-	private Move blackNextMove;
+	private ThreadPoolExecutor helperThreads;
 
-	private History history;
+	// True if the agent thinks while the opponent thinks
+	private final boolean ponder;
 
-	private Color playerColor;
+	// Runs the main searcher while pondering
+	private ThreadPoolExecutor ponderThread;
 
-	private WinnerRules rules = new PawnChessWinner();
+	// The running ponder searches (main searcher first), empty if not
+	// pondering
+	private List<Future<?>> ponderSearches = new ArrayList<>();
 
-	private Move whiteNextMove;
+	// Solved endgames, null if not available
+	private Tablebase tablebase;
 
-	private final int MATERIAL = 50;
+	// Moves of the opening, null if not available
+	private OpeningBook openingBook;
 
 	/**
 	 * Default C'tor.
 	 */
 	public ChetelatMarcAlain() {
+		this(DEFAULT_TABLE_MEGABYTES);
+	}
 
+	/**
+	 * C'tor with a memory budget for the transposition table.
+	 * 
+	 * @param tableMegabytes
+	 *            the memory used for the transposition table, in megabytes
+	 */
+	public ChetelatMarcAlain(int tableMegabytes) {
+		this(tableMegabytes, 1);
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * C'tor for a parallel search.
 	 * 
-	 * @see ch.uzh.ifi.ddis.pai.chessim.game.Agent#developerAlias()
+	 * @param tableMegabytes
+	 *            the memory used for the transposition table, in megabytes
+	 * @param threads
+	 *            the number of threads searching, including the one calling
+	 *            nextMove. With 1 the search is single threaded.
 	 */
-	@Override
-	public String developerAlias() {
-		return "mac";
+	public ChetelatMarcAlain(int tableMegabytes, int threads) {
+		this(tableMegabytes, threads, false);
 	}
 
 	/**
-	 * Get all possible moves for a player.
+	 * C'tor for a parallel search which may ponder. A pondering agent keeps
+	 * its threads busy on the opponent's time as well, so it needs
+	 * processors of its own (it does not ponder by default).
 	 * 
-	 * @param board
-	 *            the board
-	 * @param player
-	 *            the player color
-	 * @return A map containing all possible moves and the board after applying
-	 *         a specific move.
+	 * @param tableMegabytes
+	 *            the memory used for the transposition table, in megabytes
+	 * @param threads
+	 *            the number of threads searching, including the one calling
+	 *            nextMove. With 1 the search is single threaded.
+	 * @param ponder
+	 *            true to think while the opponent thinks
 	 */
-	private Map<Move, Board> getAllPossibleMoves(Board board, Color player) {
-		Map<Move, Board> ret = new HashMap<>();
-		Map<Coordinates, Figure> pawnList = board.figures(player);
-		for (Entry<Coordinates, Figure> pawn : pawnList.entrySet()) {
-			ret.putAll(pawn.getValue().possibleMoves(board));
+	public ChetelatMarcAlain(int tableMegabytes, int threads, boolean ponder) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		this.ponder = ponder;
+		this.transpositionTable = new TranspositionTable(tableMegabytes);
+		this.searcher = new Searcher(transpositionTable);
+		for (int i = 1; i < threads; i++) {
+			helpers.add(new Searcher(transpositionTable));
 		}
-
-		return ret;
 	}
 
 	/**
-	 * Return an "infinite" number depending on the color.
+	 * Use solved endgames. Positions in the tablebase are played perfectly
+	 * without search if the players move alternately.
 	 * 
-	 * @param player
-	 *            the player color
-	 * @return an "infinite" number
+	 * @param tablebase
+	 *            the tablebase, null to search all positions
 	 */
-	private int infinite(Color player) {
-		switch (player) {
-		case WHITE:
-			return 10000;
-		case BLACK:
-			return -10000;
-		default:
-			return 0;
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+		searcher.setTablebase(tablebase);
+		for (Searcher helper : helpers) {
+			helper.setTablebase(tablebase);
 		}
 	}
 
 	/**
-	 * Evaluate if a pawn is passed and can not fail anymore.
+	 * Use an opening book. Positions in the book are played without search,
+	 * if the book was built for the same probability that a player moves
+	 * twice as the game.
 	 * 
-	 * @param board
-	 *            the board
-	 * @param field
-	 *            the pawn's coordinates
-	 * @return true if the pawn is safe, else false
+	 * @param openingBook
+	 *            the book, null to search all positions
 	 */
-	private boolean isPassedPawn(Board board, Coordinates field) {
-		// No pawn can stop it from promoting
-		Color opponent = (board.figureAt(field).color).getOtherColor();
-		Coordinates coordinates = null;
-		switch (opponent) {
-		case BLACK:
-			for (int row = field.getRow() + 1; row < 8; row++) {
-				if (board.figureAt(new Coordinates(row, field.getColumn())) != null) {
-					return false;
-				}
-			}
-
-			if (field.getColumn() > 0) {
-				for (int row = field.getRow() + 1; row < 8; row++) {
-					coordinates = new Coordinates(row, field.getColumn() - 1);
-					if (board.figureAt(coordinates) != null && board.figureAt(coordinates).color == opponent) {
-						return false;
-					}
-				}
-			}
-
-			if (field.getColumn() < 7) {
-				for (int row = field.getRow() + 1; row < 8; row++) {
-					coordinates = new Coordinates(row, field.getColumn() + 1);
-					if (board.figureAt(coordinates) != null && board.figureAt(coordinates).color == opponent) {
-						return false;
-					}
-				}
-			}
-			break;
-		case WHITE:
-			for (int row = field.getRow() - 1; row >= 0; row--) {
-				if (board.figureAt(new Coordinates(row, field.getColumn())) != null) {
-					return false;
-				}
-			}
-
-			if (field.getColumn() > 0) {
-				for (int row = field.getRow() - 1; row >= 0; row--) {
-					coordinates = new Coordinates(row, field.getColumn() - 1);
-					if (board.figureAt(coordinates) != null && board.figureAt(coordinates).color == opponent) {
-						return false;
-					}
-				}
-			}
+	public void setOpeningBook(OpeningBook openingBook) {
+		this.openingBook = openingBook;
+	}
 
-			if (field.getColumn() < 7) {
-				for (int row = field.getRow() - 1; row >= 0; row--) {
-					coordinates = new Coordinates(row, field.getColumn() + 1);
-					if (board.figureAt(coordinates) != null && board.figureAt(coordinates).color == opponent) {
-						return false;
-					}
-				}
-			}
-			break;
-		default:
-			break;
-		}
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.Agent#developerAlias()
+	 */
+	@Override
+	public String developerAlias() {
+		return "mac";
+	}
 
-		return true;
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ch.uzh.ifi.ddis.pai.chessim.game.ContextAwareAgent#gameStarted(ch.uzh.
+	 * ifi.ddis.pai.chessim.game.AgentContext)
+	 */
+	@Override
+	public void gameStarted(AgentContext context) {
+		this.context = context;
+		this.probabilitySameMover = context.getProbabilitySameMover();
 	}
 
 	/**
@@ -169,82 +199,10 @@ public class ChetelatMarcAlain implements Agent {
 	 * @return
 	 */
 	public int minimax(Board board, int level, Color player, int alpha, int beta) {
-		int nodeScore;
-		Color opponent = player.getOtherColor();
-		Map<Move, Board> moves = getAllPossibleMoves(board, player);
-
-		if (rules.winner(board, history, player) != null || moves.size() == 0 || level == 4) {
-			return scoreCalculation(board, player);
-		}
-
-		switch (player) {
-		case WHITE:
-			for (Entry<Move, Board> move : moves.entrySet()) {
-				Figure removedFigure = null;
-
-				// If beating opponents figure, remove it
-				if (board.figureAt(move.getKey().to) != null && board.figureAt(move.getKey().to).color != player) {
-					removedFigure = board.figureAt(move.getKey().to);
-					board = board.removeFigure(move.getKey().to);
-				}
-
-				// Apply move
-				board = board.moveFigure(move.getKey().from, move.getKey().to);
-
-				nodeScore = minimax(new Board(board.height, board.width, board.figures()), level + 1, opponent, alpha,
-						beta);
-
-				// Un-apply move
-				board = board.moveFigure(move.getKey().to, move.getKey().from);
-				// Re-add the figure if removed before
-				if (removedFigure != null) {
-					CustomBoard customBoard = new CustomBoard(board.height, board.width, board.figures());
-					board = customBoard.addFigure(move.getKey().to, removedFigure);
-				}
-
-				if (nodeScore > alpha) {
-					alpha = nodeScore;
-					if (level == 0)
-						this.whiteNextMove = move.getKey();
-				}
-				if (alpha >= beta)
-					// No need to consider further
-					break;
-			}
-			return alpha;
-		case BLACK:
-			for (Entry<Move, Board> move : moves.entrySet()) {
-				Figure removedFigure = null;
-
-				if (board.figureAt(move.getKey().to) != null && board.figureAt(move.getKey().to).color != player) {
-					removedFigure = board.figureAt(move.getKey().to);
-					board = board.removeFigure(move.getKey().to);
-				}
-
-				board = board.moveFigure(move.getKey().from, move.getKey().to);
-
-				nodeScore = minimax(new Board(board.height, board.width, board.figures()), level + 1, opponent, alpha,
-						beta);
-
-				board = board.moveFigure(move.getKey().to, move.getKey().from);
-				if (removedFigure != null) {
-					CustomBoard customBoard = new CustomBoard(board.height, board.width, board.figures());
-					board = customBoard.addFigure(move.getKey().to, removedFigure);
-				}
-
-				if (nodeScore < beta) {
-					beta = nodeScore;
-					if (level == 0)
-						this.blackNextMove = move.getKey();
-				}
-				if (alpha >= beta)
-					break;
-			}
-			return beta;
-
-		default:
-			return Integer.MIN_VALUE;
-		}
+		stopPondering();
+		searcher.setProbabilitySameMover(probabilitySameMover);
+		searcher.start(Searcher.noDeadline(System.nanoTime()));
+		return searcher.search(new SearchPosition(board), level, FIXED_LEVEL, player, alpha, beta);
 	}
 
 	/*
@@ -256,212 +214,276 @@ public class ChetelatMarcAlain implements Agent {
 	 */
 	@Override
 	public Move nextMove(Color player, Board board, History history, long timeLimit) {
-		this.playerColor = player;
-		this.history = history;
-
-		minimax(new Board(board.height, board.width, board.figures()), 0, playerColor, Integer.MIN_VALUE,
-				Integer.MAX_VALUE);
-
-		switch (playerColor) {
-		case WHITE:
-			return whiteNextMove;
-		case BLACK:
-			return blackNextMove;
-		default:
-			return null;
-		}
+		return nextMove(player, board, history, timeLimit, null);
 	}
 
-	/**
-	 * Score calculation of a possible move.
+	/*
+	 * (non-Javadoc)
 	 * 
-	 * @param board
-	 *            the board
-	 * @param player
-	 *            the player color
-	 * @return the score
+	 * @see
+	 * ch.uzh.ifi.ddis.pai.chessim.game.CooperativeAgent#nextMove(ch.uzh.ifi.
+	 * ddis.pai.chessim.game.Color, ch.uzh.ifi.ddis.pai.chessim.game.Board,
+	 * ch.uzh.ifi.ddis.pai.chessim.game.History, long,
+	 * ch.uzh.ifi.ddis.pai.chessim.game.Deadline)
 	 */
-	private int scoreCalculation(Board board, Color player) {
-		Color winner = rules.winner(board, history, player);
-
-		if (winner != null) {
-			return infinite(winner);
+	@Override
+	public Move nextMove(Color player, Board board, History history, long timeLimit, Deadline deadline) {
+		// Normally stopped by the game already
+		stopPondering();
+		transpositionTable.newSearch();
+
+		SearchPosition position = new SearchPosition(board);
+		int[] rootMoves = new int[3 * Board.MAX_FIELDS];
+		int moveCount = position.generateMoves(player, rootMoves);
+		if (moveCount == 1) {
+			// Nothing to decide
+			return position.toMove(rootMoves[0]);
 		}
+		int bookMove = bookMove(position, player, rootMoves, moveCount);
+		if (bookMove != 0)
+			return position.toMove(bookMove);
+		int solvedMove = tablebaseMove(position, player, rootMoves, moveCount);
+		if (solvedMove != 0)
+			return position.toMove(solvedMove);
+
+		// Plan the time of this move: a share of the bank and the increment.
+		// The search is aborted at the hard limit, an iteration is not
+		// started if it is unlikely to end before the planned time.
+		long start = System.nanoTime();
+		long increment = context == null ? 0 : Math.min(context.getTimeInc(), timeLimit);
+		long bank = timeLimit - increment;
+		long planned = increment + bank / MOVES_TO_GO;
+		long hardLimit = Math.min(Math.min(planned * HARD_LIMIT_FACTOR, increment + bank / BANK_SHARE),
+				timeLimit - SAFETY_MARGIN);
+		if (hardLimit <= 0)
+			hardLimit = Math.max(1, timeLimit / 2);
+		long softLimit = Math.min(planned, hardLimit);
+		long hardDeadline = start + hardLimit * 1000000L;
+		// The clock of the game started before this call, so its deadline
+		// may be earlier
+		if (deadline != null && deadline.getDeadlineNanos() - SAFETY_MARGIN * 1000000L - hardDeadline < 0)
+			hardDeadline = deadline.getDeadlineNanos() - SAFETY_MARGIN * 1000000L;
+		long softDeadline = start + softLimit * 1000000L;
+		if (softDeadline - hardDeadline > 0)
+			softDeadline = hardDeadline;
+
+		List<Future<?>> helperSearches = startHelpers(board, player, start, hardDeadline);
+		searcher.setProbabilitySameMover(probabilitySameMover);
+		searcher.start(hardDeadline);
+		int move = searcher.iterate(position, player, 1, start, softDeadline);
+		stopHelpers(helperSearches);
+
+		if (move == 0)
+			// Not even the first iteration completed
+			move = rootMoves[0];
+		return position.toMove(move);
+	}
 
-		int score = 0;
-		// White support per column
-		int whiteSupport[] = new int[8];
-		// Black support per column
-		int blackSupport[] = new int[8];
-		// Space behind first white pawn (columnwise)
-		int whiteSpaceBack[] = new int[8];
-		// Space behind first black pawn (columnwise)
-		int blackSpaceBack[] = new int[8];
-		// Columns which contain white pawn
-		boolean whiteColumn[] = new boolean[8];
-		// Columns which contain black pawn
-		boolean blackColumn[] = new boolean[8];
-		// Reflects if a player is one move ahead
-		int materialDifference = 0;
-		int support;
-
-		for (int column = 0; column < 8; column++) {
-			for (int row = 0; row < 8; row++) {
-				if (board.figureAt(new Coordinates(row, column)) != null) {
-					switch (board.figureAt(new Coordinates(row, column)).color) {
-					case WHITE:
-						whiteSpaceBack[column] = Math.max(whiteSpaceBack[column], row);
-						if (whiteColumn[column])
-							score--; // double pawns in column
-
-						// To check how many can block it
-						whiteColumn[column] = true;
-
-						whiteSupport[column]++;
-						if (column > 0)
-							whiteSupport[column - 1]++;
-						if (column < 7)
-							whiteSupport[column + 1]++;
-
-						materialDifference++;
-
-						// Calculate support points for figure
-						support = 0;
-						Coordinates coordinates;
-						if (column > 0) {
-							coordinates = new Coordinates(row + 1, column - 1);
-							if (board.onBoard(coordinates) && board.figureAt(coordinates) != null
-									&& board.figureAt(coordinates).color == Color.BLACK)
-								support--;
-							coordinates = new Coordinates(row - 1, column - 1);
-							if (board.onBoard(coordinates) && board.figureAt(coordinates) != null
-									&& board.figureAt(coordinates).color == Color.WHITE)
-								support++;
-						}
-						if (column < 7) {
-							coordinates = new Coordinates(row + 1, column + 1);
-							if (board.onBoard(coordinates) && board.figureAt(coordinates) != null
-									&& board.figureAt(coordinates).color == Color.BLACK)
-								support--;
-							coordinates = new Coordinates(row - 1, column + 1);
-							if (board.onBoard(coordinates) && board.figureAt(coordinates) != null
-									&& board.figureAt(coordinates).color == Color.WHITE)
-								support++;
-						}
-						if (support < 0)
-							score = score + MATERIAL * support;
-
-						break;
-					case BLACK:
-						blackSpaceBack[column] = Math.min(blackSpaceBack[column], row - 7);
-						if (blackColumn[column])
-							score++;
-						blackColumn[column] = true;
-
-						blackSupport[column]++;
-						if (column > 0)
-							blackSupport[column - 1]++;
-						if (column < 7)
-							blackSupport[column + 1]++;
-
-						materialDifference--;
-
-						support = 0;
-						if (column > 0) {
-							coordinates = new Coordinates(row - 1, column - 1);
-							if (board.onBoard(coordinates) && board.figureAt(coordinates) != null
-									&& board.figureAt(coordinates).color == Color.WHITE)
-								support--;
-							coordinates = new Coordinates(row + 1, column - 1);
-							if (board.onBoard(coordinates) && board.figureAt(coordinates) != null
-									&& board.figureAt(coordinates).color == Color.BLACK)
-								support++;
-						}
-						if (column < 7) {
-							coordinates = new Coordinates(row - 1, column + 1);
-							if (board.onBoard(coordinates) && board.figureAt(coordinates) != null
-									&& board.figureAt(coordinates).color == Color.WHITE)
-								support--;
-							coordinates = new Coordinates(row + 1, column + 1);
-							if (board.onBoard(coordinates) && board.figureAt(coordinates) != null
-									&& board.figureAt(coordinates).color == Color.BLACK)
-								support++;
-						}
-						if (support < 0)
-							score = score - MATERIAL * support;
-
-						break;
-					default:
-						break;
-					}
-				}
+	/**
+	 * Search the position after the reply of the opponent the last search
+	 * expected, or the position of the opponent if there is none. The
+	 * searches fill the transposition table, so if the expected reply is
+	 * played, the search of the next move finds the results. Does nothing
+	 * if the agent was created without pondering.
+	 * 
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.PonderingAgent#startPondering(ch.uzh.ifi.ddis.pai.chessim.game.Color,
+	 *      ch.uzh.ifi.ddis.pai.chessim.game.Board,
+	 *      ch.uzh.ifi.ddis.pai.chessim.game.History)
+	 */
+	@Override
+	public void startPondering(Color player, Board board, History history) {
+		stopPondering();
+		if (!ponder)
+			return;
+		Color opponent = player.getOtherColor();
+		SearchPosition position = new SearchPosition(board);
+		int[] moves = new int[3 * Board.MAX_FIELDS];
+		int moveCount = position.generateMoves(opponent, moves);
+		int expected = TranspositionTable.move(transpositionTable.probe(position.key(opponent)));
+		Board ponderBoard = board;
+		Color ponderPlayer = opponent;
+		for (int i = 0; i < moveCount; i++) {
+			if (moves[i] == expected) {
+				ponderBoard = board.applyMove(position.toMove(expected));
+				ponderPlayer = player;
+				break;
 			}
 		}
+		if (new SearchPosition(ponderBoard).winner(ponderPlayer) != null)
+			// Nothing to search
+			return;
+
+		transpositionTable.newSearch();
+		long start = System.nanoTime();
+		// Searched until stopped
+		long end = Searcher.noDeadline(start);
+		if (ponderThread == null)
+			ponderThread = newThreadPool(1, "mac-ponder");
+		SearchPosition ponderPosition = new SearchPosition(ponderBoard);
+		Color ponderMover = ponderPlayer;
+		searcher.setProbabilitySameMover(probabilitySameMover);
+		searcher.start(end);
+		ponderSearches.add(ponderThread.submit(() -> searcher.iterate(ponderPosition, ponderMover, 1, start, end)));
+		ponderSearches.addAll(startHelpers(ponderBoard, ponderPlayer, start, end));
+	}
 
-		score = score + MATERIAL * materialDifference;
-
-		// Calculate minimum moves
-		// The closer the passed pawn the more points
-		// Find column score and aspire winnings pawns with more support
-		int minMovesWhite = 1000;
-		int minMovesBlack = 1000;
-		int supporter;
-		for (int i = 0; i < whiteSupport.length; i++) {
-			if (whiteSupport[i] > blackSupport[i]) {
-				if (i == 0)
-					supporter = 7 - whiteSpaceBack[i + 1];
-				else if (i == 7)
-					supporter = 7 - whiteSpaceBack[i - 1];
-				else
-					supporter = 7 - Math.max(whiteSpaceBack[i - 1], whiteSpaceBack[i + 1]);
-
-				minMovesWhite = 7 - whiteSpaceBack[i] + supporter - 2;
-			} else if (whiteSupport[i] < blackSupport[i]) {
-				if (i == 0)
-					supporter = blackSpaceBack[i + 1] + 7;
-				else if (i == 7)
-					supporter = blackSpaceBack[i - 1] + 7;
-				else
-					supporter = 7 + Math.min(blackSpaceBack[i - 1], blackSpaceBack[i + 1]);
-				minMovesBlack = blackSpaceBack[i] + 7 + supporter - 2;
-			}
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ch.uzh.ifi.ddis.pai.chessim.game.PonderingAgent#stopPondering()
+	 */
+	@Override
+	public void stopPondering() {
+		if (ponderSearches.isEmpty())
+			return;
+		searcher.stop();
+		stopHelpers(ponderSearches);
+		ponderSearches = new ArrayList<>();
+	}
+
+	/**
+	 * The move of the opening book.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param player
+	 *            the player to move
+	 * @param moves
+	 *            the possible moves
+	 * @param moveCount
+	 *            the number of moves
+	 * @return the move, 0 if the position is not in the book
+	 */
+	private int bookMove(SearchPosition position, Color player, int[] moves, int moveCount) {
+		if (openingBook == null || openingBook.probabilitySameMover() != probabilitySameMover)
+			return 0;
+		int move = openingBook.probe(position.key(player));
+		// Different positions may have the same key
+		for (int i = 0; i < moveCount; i++) {
+			if (moves[i] == move)
+				return move;
 		}
+		return 0;
+	}
 
-		int whiteBestPassed = -1;
-		int blackBestPassed = 100;
-
-		for (int column = 0; column < 8; column++) {
-			for (int row = 0; row < 8; row++) {
-				if (board.figureAt(new Coordinates(row, column)) != null) {
-					switch (board.figureAt(new Coordinates(row, column)).color) {
-					case WHITE:
-						if (isPassedPawn(board, new Coordinates(row, column))) {
-							whiteBestPassed = Math.max(whiteBestPassed, row);
-						}
-						break;
-					case BLACK:
-						if (isPassedPawn(board, new Coordinates(row, column))) {
-							blackBestPassed = Math.min(blackBestPassed, row);
-						}
-						break;
-					default:
-						break;
-					}
+	/**
+	 * The best move according to the tablebase: the fastest win, or the
+	 * slowest loss if the position is lost.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param player
+	 *            the player to move
+	 * @param moves
+	 *            the possible moves
+	 * @param moveCount
+	 *            the number of moves
+	 * @return the move, 0 if the tablebase can not be used
+	 */
+	private int tablebaseMove(SearchPosition position, Color player, int[] moves, int moveCount) {
+		if (tablebase == null || probabilitySameMover > 0.0)
+			return 0;
+		Color opponent = player.getOtherColor();
+		int bestMove = 0;
+		// Distances to a win are negative, to a loss positive
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < moveCount; i++) {
+			int move = moves[i];
+			position.make(move);
+			int distance;
+			if (position.winner(opponent) == player) {
+				distance = -Tablebase.DISTANCE_MASK - 1;
+			} else {
+				int value = tablebase.probe(position.pawns(Color.WHITE), position.pawns(Color.BLACK), opponent);
+				if (value == Tablebase.UNKNOWN) {
+					position.unmake(move);
+					return 0;
 				}
+				distance = Tablebase.isLoss(value) ? Tablebase.distance(value) - Tablebase.DISTANCE_MASK
+						: Tablebase.DISTANCE_MASK - Tablebase.distance(value);
+			}
+			position.unmake(move);
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				bestMove = move;
 			}
 		}
+		return bestMove;
+	}
 
-		if (whiteBestPassed == -1 && blackBestPassed == 100)
-			return score;
-
-		whiteBestPassed = 7 - whiteBestPassed;
-		if (whiteBestPassed < blackBestPassed && whiteBestPassed < minMovesBlack)
-			score += 10000;
-
-		if (blackBestPassed < whiteBestPassed && blackBestPassed < minMovesWhite)
-			score -= 10000;
+	/**
+	 * Start the helper searches. Half of the helpers start one level deeper,
+	 * so the threads do not search the same levels at the same time.
+	 * 
+	 * @param board
+	 *            the board
+	 * @param player
+	 *            the player to move
+	 * @param start
+	 *            the time (System.nanoTime) the search started
+	 * @param hardDeadline
+	 *            the time (System.nanoTime) the search ends at the latest
+	 * @return the running searches
+	 */
+	private List<Future<?>> startHelpers(Board board, Color player, long start, long hardDeadline) {
+		List<Future<?>> searches = new ArrayList<>();
+		if (helpers.isEmpty())
+			return searches;
+		if (helperThreads == null)
+			helperThreads = newThreadPool(helpers.size(), "mac-helper");
+		for (int i = 0; i < helpers.size(); i++) {
+			Searcher helper = helpers.get(i);
+			int firstLevel = 1 + (i + 1) % 2;
+			helper.setProbabilitySameMover(probabilitySameMover);
+			helper.start(hardDeadline);
+			// Helpers start iterations until the hard deadline
+			long softDeadline = Searcher.noDeadline(start);
+			searches.add(helperThreads.submit(
+					() -> helper.iterate(new SearchPosition(board), player, firstLevel, start, softDeadline)));
+		}
+		return searches;
+	}
 
-		return score;
+	/**
+	 * A pool of daemon threads, which end when they are idle.
+	 * 
+	 * @param threads
+	 *            the number of threads
+	 * @param name
+	 *            the name of the threads
+	 * @return the pool
+	 */
+	private ThreadPoolExecutor newThreadPool(int threads, String name) {
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, HELPER_KEEP_ALIVE, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(runnable, name);
+					thread.setDaemon(true);
+					return thread;
+				});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
 
+	/**
+	 * Stop the helper searches and wait until they ended. The result of a
+	 * failed helper is not needed, it is ignored.
+	 * 
+	 * @param searches
+	 *            the running searches
+	 */
+	private void stopHelpers(List<Future<?>> searches) {
+		for (Searcher helper : helpers) {
+			helper.stop();
+		}
+		for (Future<?> search : searches) {
+			try {
+				search.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				// Only the main search is needed for the move
+			}
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package students.chetelatmarcalain.book;
+
+import java.util.Random;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.AgentContext;
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.ContextAwareAgent;
+import ch.uzh.ifi.ddis.pai.chessim.game.History;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import students.ChetelatMarcAlain;
+import students.chetelatmarcalain.game.SearchPosition;
+
+/**
+ * The agent playing self-play games: the first moves are random with a small
+ * probability, all others are the ones of the agent. This way, the games of
+ * the same agents do not all start with the same moves.
+ *
+ * @author mac
+ *
+ */
+public class ExploringAgent implements ContextAwareAgent {
+
+	// Probability of a random move during the first plies
+	private static final double EXPLORATION = 0.2;
+
+	private final ChetelatMarcAlain agent = new ChetelatMarcAlain();
+	private final int plies;
+	private final Random random;
+	private final int[] moves = new int[3 * Board.MAX_FIELDS];
+
+	/**
+	 * C'tor.
+	 *
+	 * @param plies
+	 *            the number of plies at the start of the game in which random
+	 *            moves are played
+	 * @param random
+	 *            the random generator choosing the random moves
+	 */
+	public ExploringAgent(int plies, Random random) {
+		this.plies = plies;
+		this.random = random;
+	}
+
+	@Override
+	public String developerAlias() {
+		return agent.developerAlias();
+	}
+
+	@Override
+	public void gameStarted(AgentContext context) {
+		agent.gameStarted(context);
+	}
+
+	@Override
+	public Move nextMove(Color player, Board board, History history, long timeLimit) {
+		if (history.size() < plies && random.nextDouble() < EXPLORATION) {
+			SearchPosition position = new SearchPosition(board);
+			int moveCount = position.generateMoves(player, moves);
+			if (moveCount > 0)
+				return position.toMove(moves[random.nextInt(moveCount)]);
+		}
+		return agent.nextMove(player, board, history, timeLimit);
+	}
+}
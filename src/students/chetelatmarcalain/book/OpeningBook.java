@@ -0,0 +1,126 @@
+package students.chetelatmarcalain.book;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only access to an opening book written by {@link OpeningBookBuilder}.
+ * The file is mapped into memory and searched binary, so opening and probing
+ * the book is cheap.
+ *
+ * File format (big endian): a header (magic, number of records, probability
+ * that the player who moved moves again in the games of the book) and the
+ * records, sorted by position key and move. A record has 16 bytes: the
+ * Zobrist key of the position including the player to move (8 bytes), the
+ * move (2 bytes), the games the move was played in (2 bytes, unsigned) and
+ * the games won by the player of the move (4 bytes).
+ *
+ * @author mac
+ *
+ */
+public class OpeningBook {
+
+	static final int MAGIC = 0x4D41424B;
+	static final int HEADER_SIZE = 16;
+	static final int RECORD_SIZE = 16;
+
+	// Moves played less often are not trusted
+	private static final int MIN_GAMES = 3;
+
+	private final MappedByteBuffer records;
+	private final int size;
+	private final double probabilitySameMover;
+
+	private OpeningBook(MappedByteBuffer records, int size, double probabilitySameMover) {
+		this.records = records;
+		this.size = size;
+		this.probabilitySameMover = probabilitySameMover;
+	}
+
+	/**
+	 * Maps a book into memory.
+	 *
+	 * @param file
+	 *            the book
+	 * @return the book
+	 * @throws IOException
+	 *             if the file can not be read or is no book
+	 */
+	public static OpeningBook open(File file) throws IOException {
+		try (RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel()) {
+			if (channel.size() < HEADER_SIZE) {
+				throw new IOException(file + " is no opening book");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt(0) != MAGIC) {
+				throw new IOException(file + " is no opening book");
+			}
+			int size = buffer.getInt(4);
+			if (channel.size() != HEADER_SIZE + (long) size * RECORD_SIZE) {
+				throw new IOException("Unexpected size of " + file);
+			}
+			return new OpeningBook(buffer, size, buffer.getDouble(8));
+		}
+	}
+
+	/**
+	 * @return the probability that the player who moved moves again, in the
+	 *         games the book was built from
+	 */
+	public double probabilitySameMover() {
+		return probabilitySameMover;
+	}
+
+	/**
+	 * @return the number of records
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * The best move of a position: the move with the best share of won games
+	 * (counting one won and one lost game more, so rarely played moves are
+	 * not overrated), among the moves played at least a few times.
+	 *
+	 * @param key
+	 *            the Zobrist key of the position, including the player to move
+	 * @return the encoded move, 0 if the position is not in the book
+	 */
+	public int probe(long key) {
+		int bestMove = 0;
+		double bestScore = -1.0;
+		for (int i = firstRecord(key); i < size && key(i) == key; i++) {
+			int offset = HEADER_SIZE + i * RECORD_SIZE;
+			int games = records.getShort(offset + 10) & 0xFFFF;
+			int wins = records.getInt(offset + 12);
+			double score = (wins + 1.0) / (games + 2.0);
+			if (games >= MIN_GAMES && score > bestScore) {
+				bestScore = score;
+				bestMove = records.getShort(offset + 8) & 0xFFFF;
+			}
+		}
+		return bestMove;
+	}
+
+	// The first record with a key not less than the given one
+	private int firstRecord(long key) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (key(middle) < key)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	private long key(int record) {
+		return records.getLong(HEADER_SIZE + record * RECORD_SIZE);
+	}
+}
@@ -0,0 +1,170 @@
+package students.chetelatmarcalain.book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Game;
+import ch.uzh.ifi.ddis.pai.chessim.game.History;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.RandomMoverPawnGame;
+import students.chetelatmarcalain.game.SearchPosition;
+
+/**
+ * Builds an {@link OpeningBook} from self-play games of the agent. To see
+ * different openings, the agents play a random move with a small probability
+ * during the first moves. For every position of the first moves, the book
+ * counts how often each move was played and won.
+ *
+ * @author mac
+ *
+ */
+public class OpeningBookBuilder {
+
+	// Plies of a game which are added to the book
+	private final int plies;
+
+	// Games and wins per position key and move
+	private final Map<Long, Map<Integer, int[]>> statistics = new HashMap<>();
+
+	/**
+	 * C'tor.
+	 *
+	 * @param plies
+	 *            the number of plies of every game added to the book
+	 */
+	public OpeningBookBuilder(int plies) {
+		this.plies = plies;
+	}
+
+	/**
+	 * Plays self-play games and writes the book. Arguments: the book file,
+	 * the number of games (default 100), the plies per game in the book
+	 * (default 10), the time per player and game in ms (default 5000), the
+	 * probability that the player who moved moves again (default 0) and the
+	 * number of games played at the same time (default: the number of
+	 * processors).
+	 *
+	 * @param args
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		File file = new File(args.length > 0 ? args[0] : "opening.book");
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int plies = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		long timeLimit = args.length > 3 ? Long.parseLong(args[3]) : 5000;
+		double probabilitySameMover = args.length > 4 ? Double.parseDouble(args[4]) : 0.0;
+		int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+		OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		AtomicInteger finished = new AtomicInteger();
+		List<Future<?>> results = new ArrayList<>();
+		for (int i = 0; i < games; i++) {
+			long seed = i;
+			results.add(executor.submit(() -> {
+				Random random = new Random(seed);
+				Game game = new RandomMoverPawnGame(timeLimit, 0, new ExploringAgent(plies, random),
+						new ExploringAgent(plies, random), probabilitySameMover, seed);
+				Game.GameResult result = game.playGame();
+				builder.addGame(game.getInitialBoard(), result.getHistory(), result.getWinnersColour());
+				int done = finished.incrementAndGet();
+				if (done % 10 == 0)
+					System.out.println(done + " of " + games + " games played");
+			}));
+		}
+		try {
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		builder.write(file, probabilitySameMover);
+		System.out.println("Opening book with " + builder.positions() + " positions written to " + file);
+	}
+
+	/**
+	 * Add the first plies of a game.
+	 *
+	 * @param initialBoard
+	 *            the board the game started with
+	 * @param history
+	 *            the moves of the game
+	 * @param winner
+	 *            the color of the winner
+	 */
+	public synchronized void addGame(Board initialBoard, History history, Color winner) {
+		SearchPosition position = new SearchPosition(initialBoard);
+		for (int i = 0; i < Math.min(plies, history.size()); i++) {
+			Move move = history.getMove(i);
+			Color mover = history.getMover(i);
+			int encoded = SearchPosition.move(initialBoard.index(move.from), initialBoard.index(move.to));
+			int[] counts = statistics.computeIfAbsent(position.key(mover), key -> new HashMap<>())
+					.computeIfAbsent(encoded, key -> new int[2]);
+			counts[0]++;
+			if (mover == winner)
+				counts[1]++;
+			position.make(encoded);
+		}
+	}
+
+	/**
+	 * @return the number of positions in the book
+	 */
+	public synchronized int positions() {
+		return statistics.size();
+	}
+
+	/**
+	 * Write the book, sorted by position key and move.
+	 *
+	 * @param file
+	 *            the book file
+	 * @param probabilitySameMover
+	 *            the probability that the player who moved moves again, in
+	 *            the games of the book
+	 * @throws IOException
+	 */
+	public synchronized void write(File file, double probabilitySameMover) throws IOException {
+		TreeMap<Long, Map<Integer, int[]>> sorted = new TreeMap<>(statistics);
+		int records = 0;
+		for (Map<Integer, int[]> moves : sorted.values()) {
+			records += moves.size();
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(records);
+			out.writeDouble(probabilitySameMover);
+			for (Map.Entry<Long, Map<Integer, int[]>> position : sorted.entrySet()) {
+				for (Map.Entry<Integer, int[]> move : new TreeMap<>(position.getValue()).entrySet()) {
+					int games = move.getValue()[0];
+					int wins = move.getValue()[1];
+					// Keep the share of wins if the games do not fit
+					while (games > 0xFFFF) {
+						games >>= 1;
+						wins >>= 1;
+					}
+					out.writeLong(position.getKey());
+					out.writeShort(move.getKey());
+					out.writeShort(games);
+					out.writeInt(wins);
+				}
+			}
+		}
+	}
+}
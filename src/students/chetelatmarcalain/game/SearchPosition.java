@@ -0,0 +1,373 @@
+package students.chetelatmarcalain.game;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.MoveTables;
+
+/**
+ * A mutable pawn position used by the search. Moves are applied and taken
+ * back in place ({@link #make(int)} / {@link #unmake(int)}), so searching a
+ * node does not allocate anything.
+ *
+ * The pawns of each color are kept as one 64 bit word (bit index = row *
+ * width + column). Moves are encoded as int: origin index in the lower 8
+ * bits, destination index in the next 8 bits. The {@link Zobrist} key of the
+ * pawns, the material balance and the number of pawns per column are updated
+ * with every move.
+ *
+ * @author mac
+ *
+ */
+public class SearchPosition {
+
+	// Rows counted as advanced by advancedRows
+	private static final int ADVANCED_ROWS = 3;
+
+	public final int height;
+	public final int width;
+
+	private final MoveTables tables;
+
+	private long white;
+	private long black;
+
+	// Zobrist key of the pawns (without the player to move)
+	private long key;
+
+	// Number of white pawns minus number of black pawns
+	private int material;
+
+	// Pawns per column
+	private final int[] whiteFiles;
+	private final int[] blackFiles;
+
+	// Fields captured by the moves made so far, 0 if the move was no capture
+	private long[] undoStack = new long[256];
+	private int undoSize;
+
+	/**
+	 * Creates a search position from a board.
+	 *
+	 * @param board
+	 *            the board
+	 */
+	public SearchPosition(Board board) {
+		this.height = board.height;
+		this.width = board.width;
+		this.tables = board.moveTables();
+		this.white = board.occupancy(Color.WHITE);
+		this.black = board.occupancy(Color.BLACK);
+		this.key = Zobrist.pawns(Color.WHITE, white) ^ Zobrist.pawns(Color.BLACK, black);
+		this.material = Long.bitCount(white) - Long.bitCount(black);
+		this.whiteFiles = new int[width];
+		this.blackFiles = new int[width];
+		for (long bits = white; bits != 0; bits &= bits - 1) {
+			whiteFiles[Long.numberOfTrailingZeros(bits) % width]++;
+		}
+		for (long bits = black; bits != 0; bits &= bits - 1) {
+			blackFiles[Long.numberOfTrailingZeros(bits) % width]++;
+		}
+	}
+
+	/**
+	 * Encodes a move.
+	 *
+	 * @param from
+	 *            the origin index
+	 * @param to
+	 *            the destination index
+	 * @return the encoded move
+	 */
+	public static int move(int from, int to) {
+		return from | (to << 8);
+	}
+
+	/**
+	 * @param move
+	 *            an encoded move
+	 * @return the origin index of the move
+	 */
+	public static int from(int move) {
+		return move & 0xFF;
+	}
+
+	/**
+	 * @param move
+	 *            an encoded move
+	 * @return the destination index of the move
+	 */
+	public static int to(int move) {
+		return (move >>> 8) & 0xFF;
+	}
+
+	/**
+	 * Converts an encoded move to a {@link Move} of the game.
+	 *
+	 * @param move
+	 *            an encoded move
+	 * @return the move
+	 */
+	public Move toMove(int move) {
+		return new Move(tables.coordinates(from(move)), tables.coordinates(to(move)));
+	}
+
+	/**
+	 * The precomputed move targets of the board geometry.
+	 *
+	 * @return the move tables
+	 */
+	public MoveTables moveTables() {
+		return tables;
+	}
+
+	/**
+	 * The pawns of a player.
+	 *
+	 * @param player
+	 *            the player color
+	 * @return one bit per pawn
+	 */
+	public long pawns(Color player) {
+		return player == Color.WHITE ? white : black;
+	}
+
+	/**
+	 * The Zobrist key of the position.
+	 *
+	 * @param nextMover
+	 *            the player to move next
+	 * @return the key
+	 */
+	public long key(Color nextMover) {
+		return key ^ Zobrist.nextMover(nextMover);
+	}
+
+	/**
+	 * The material balance.
+	 *
+	 * @return the number of white pawns minus the number of black pawns
+	 */
+	public int materialDifference() {
+		return material;
+	}
+
+	/**
+	 * The number of pawns of a player in a column.
+	 *
+	 * @param player
+	 *            the player color
+	 * @param column
+	 *            the column
+	 * @return the number of pawns
+	 */
+	public int fileCount(Color player, int column) {
+		return player == Color.WHITE ? whiteFiles[column] : blackFiles[column];
+	}
+
+	/**
+	 * Check if a player has a pawn on a field. Fields outside of the board
+	 * are never occupied.
+	 *
+	 * @param player
+	 *            the player color
+	 * @param row
+	 *            the row
+	 * @param column
+	 *            the column
+	 * @return true if there is a pawn of the player
+	 */
+	public boolean hasPawn(Color player, int row, int column) {
+		if (row < 0 || row >= height || column < 0 || column >= width) {
+			return false;
+		}
+		return (pawns(player) & (1L << (row * width + column))) != 0;
+	}
+
+	/**
+	 * Apply a move in place.
+	 *
+	 * @param move
+	 *            an encoded move
+	 */
+	public void make(int move) {
+		int from = from(move);
+		int to = to(move);
+		long fromBit = 1L << from;
+		long toBit = 1L << to;
+		int fromColumn = from % width;
+		int toColumn = to % width;
+		long captured;
+		if ((white & fromBit) != 0) {
+			captured = black & toBit;
+			black ^= captured;
+			white ^= fromBit | toBit;
+			key ^= Zobrist.pawn(Color.WHITE, from) ^ Zobrist.pawn(Color.WHITE, to);
+			whiteFiles[fromColumn]--;
+			whiteFiles[toColumn]++;
+			if (captured != 0) {
+				key ^= Zobrist.pawn(Color.BLACK, to);
+				material++;
+				blackFiles[toColumn]--;
+			}
+		} else {
+			captured = white & toBit;
+			white ^= captured;
+			black ^= fromBit | toBit;
+			key ^= Zobrist.pawn(Color.BLACK, from) ^ Zobrist.pawn(Color.BLACK, to);
+			blackFiles[fromColumn]--;
+			blackFiles[toColumn]++;
+			if (captured != 0) {
+				key ^= Zobrist.pawn(Color.WHITE, to);
+				material--;
+				whiteFiles[toColumn]--;
+			}
+		}
+		if (undoSize == undoStack.length) {
+			long[] grown = new long[undoStack.length * 2];
+			System.arraycopy(undoStack, 0, grown, 0, undoSize);
+			undoStack = grown;
+		}
+		undoStack[undoSize++] = captured;
+	}
+
+	/**
+	 * Take back the last move made.
+	 *
+	 * @param move
+	 *            the encoded move, which was the last one passed to
+	 *            {@link #make(int)}
+	 */
+	public void unmake(int move) {
+		int from = from(move);
+		int to = to(move);
+		long fromBit = 1L << from;
+		long toBit = 1L << to;
+		int fromColumn = from % width;
+		int toColumn = to % width;
+		long captured = undoStack[--undoSize];
+		if ((white & toBit) != 0) {
+			white ^= fromBit | toBit;
+			black |= captured;
+			key ^= Zobrist.pawn(Color.WHITE, from) ^ Zobrist.pawn(Color.WHITE, to);
+			whiteFiles[fromColumn]++;
+			whiteFiles[toColumn]--;
+			if (captured != 0) {
+				key ^= Zobrist.pawn(Color.BLACK, to);
+				material--;
+				blackFiles[toColumn]++;
+			}
+		} else {
+			black ^= fromBit | toBit;
+			white |= captured;
+			key ^= Zobrist.pawn(Color.BLACK, from) ^ Zobrist.pawn(Color.BLACK, to);
+			blackFiles[fromColumn]++;
+			blackFiles[toColumn]--;
+			if (captured != 0) {
+				key ^= Zobrist.pawn(Color.WHITE, to);
+				material++;
+				whiteFiles[toColumn]++;
+			}
+		}
+	}
+
+	/**
+	 * Write all possible moves of a player to the buffer.
+	 *
+	 * @param player
+	 *            the player color
+	 * @param buffer
+	 *            the buffer, must have space for three moves per pawn
+	 * @return the number of moves written
+	 */
+	public int generateMoves(Color player, int[] buffer) {
+		long empty = tables.boardMask() & ~(white | black);
+		long own = pawns(player);
+		long opponents = pawns(player.getOtherColor());
+		int forward = tables.forwardOffset(player);
+		int count = 0;
+		count = writeMoves(buffer, count, tables.pushTargets(player, own, empty), forward);
+		count = writeMoves(buffer, count, tables.leftCaptureTargets(player, own, opponents), forward - 1);
+		count = writeMoves(buffer, count, tables.rightCaptureTargets(player, own, opponents), forward + 1);
+		return count;
+	}
+
+	/**
+	 * Write the tactical moves of a player to the buffer: the pushes to the
+	 * advanced rows first (see {@link #advancedRows(Color)}), then the
+	 * captures.
+	 *
+	 * @param player
+	 *            the player color
+	 * @param buffer
+	 *            the buffer, must have space for three moves per pawn
+	 * @return the number of moves written
+	 */
+	public int generateTacticalMoves(Color player, int[] buffer) {
+		long empty = tables.boardMask() & ~(white | black);
+		long own = pawns(player);
+		long opponents = pawns(player.getOtherColor());
+		int forward = tables.forwardOffset(player);
+		int count = 0;
+		count = writeMoves(buffer, count, tables.pushTargets(player, own, empty) & advancedRows(player), forward);
+		count = writeMoves(buffer, count, tables.leftCaptureTargets(player, own, opponents), forward - 1);
+		count = writeMoves(buffer, count, tables.rightCaptureTargets(player, own, opponents), forward + 1);
+		return count;
+	}
+
+	/**
+	 * The last three rows of a player (the 6th, 7th and 8th rank on a board
+	 * with 8 rows), one bit per field. A pawn reaching them is about to
+	 * win.
+	 *
+	 * @param player
+	 *            the player color
+	 * @return the fields of the rows
+	 */
+	public long advancedRows(Color player) {
+		int rows = Math.min(ADVANCED_ROWS, height);
+		if (player == Color.WHITE)
+			return tables.boardMask() & -(1L << ((height - rows) * width));
+		return rows * width >= Long.SIZE ? tables.boardMask() : (1L << (rows * width)) - 1;
+	}
+
+	private static int writeMoves(int[] buffer, int count, long targets, int step) {
+		for (long bits = targets; bits != 0; bits &= bits - 1) {
+			int to = Long.numberOfTrailingZeros(bits);
+			buffer[count++] = move(to - step, to);
+		}
+		return count;
+	}
+
+	/**
+	 * Check if a player has at least one possible move.
+	 *
+	 * @param player
+	 *            the player color
+	 * @return true if the player can move
+	 */
+	public boolean canMove(Color player) {
+		long empty = tables.boardMask() & ~(white | black);
+		return tables.pawnTargets(player, pawns(player), empty, pawns(player.getOtherColor())) != 0;
+	}
+
+	/**
+	 * The winner of the position according to the pawn chess rules.
+	 *
+	 * @param nextMover
+	 *            the player to move next
+	 * @return the winner, null if the game is not decided yet
+	 */
+	public Color winner(Color nextMover) {
+		if ((white & tables.lastRow(Color.WHITE)) != 0) {
+			return Color.WHITE;
+		}
+		if ((black & tables.lastRow(Color.BLACK)) != 0) {
+			return Color.BLACK;
+		}
+		if (!canMove(nextMover)) {
+			return nextMover.getOtherColor();
+		}
+		return null;
+	}
+}
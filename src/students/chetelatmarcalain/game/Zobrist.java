@@ -0,0 +1,77 @@
+package students.chetelatmarcalain.game;
+
+import java.util.Random;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+
+/**
+ * Zobrist keys of pawn positions. Every (color, field) pair and the player to
+ * move next have a random 64 bit key, the key of a position is the xor of
+ * the keys of its pawns. The keys are generated from a fixed seed, so a
+ * position has the same key in every run.
+ * 
+ * @author mac
+ *
+ */
+public final class Zobrist {
+
+	private static final long SEED = 0x5EED_C4E55L;
+
+	private static final long[] WHITE_KEYS = new long[Board.MAX_FIELDS];
+	private static final long[] BLACK_KEYS = new long[Board.MAX_FIELDS];
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		Random random = new Random(SEED);
+		for (int field = 0; field < Board.MAX_FIELDS; field++) {
+			WHITE_KEYS[field] = random.nextLong();
+			BLACK_KEYS[field] = random.nextLong();
+		}
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * The key of a pawn.
+	 * 
+	 * @param player
+	 *            the pawn's color
+	 * @param field
+	 *            the field index
+	 * @return the key
+	 */
+	public static long pawn(Color player, int field) {
+		return player == Color.WHITE ? WHITE_KEYS[field] : BLACK_KEYS[field];
+	}
+
+	/**
+	 * The key of all pawns of a player.
+	 * 
+	 * @param player
+	 *            the color
+	 * @param pawns
+	 *            one bit per pawn
+	 * @return the key
+	 */
+	public static long pawns(Color player, long pawns) {
+		long key = 0L;
+		for (long bits = pawns; bits != 0; bits &= bits - 1) {
+			key ^= pawn(player, Long.numberOfTrailingZeros(bits));
+		}
+		return key;
+	}
+
+	/**
+	 * The key to add for the player to move next.
+	 * 
+	 * @param nextMover
+	 *            the player to move next
+	 * @return the key
+	 */
+	public static long nextMover(Color nextMover) {
+		return nextMover == Color.BLACK ? BLACK_TO_MOVE : 0L;
+	}
+}
@@ -0,0 +1,253 @@
+package students.chetelatmarcalain.search;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.MoveTables;
+import students.chetelatmarcalain.game.SearchPosition;
+
+/**
+ * The evaluation of positions at the end of the search. An instance keeps
+ * its tables between calls, so every search thread needs its own.
+ *
+ * Pawn structure is evaluated with masks precomputed per board geometry:
+ * the fields in front of a pawn in its column (front span) and in the
+ * adjacent columns give passed pawns, and the diagonal neighbours give
+ * attacked and supported pawns with a few bitwise operations. Material and
+ * the pawns per column are kept up to date by the position with every move.
+ *
+ * The score terms assume a board with at most 8 rows and columns, as the
+ * board of the game.
+ *
+ * @author mac
+ *
+ */
+public class Evaluation {
+
+	/**
+	 * Largest absolute score of a position which is not decided yet. Decided
+	 * positions score more, and the search scores game ends and the
+	 * tablebase above it as well.
+	 */
+	public static final int MAX_SCORE = 14000;
+
+	private final int MATERIAL = 50;
+
+	// Bonus of a pawn race won
+	private final int RACE_WON = 10000;
+
+	// Columns of the evaluation, columns outside of the board are empty
+	private static final int COLUMNS = 8;
+
+	// Geometry the masks were computed for
+	private MoveTables tables;
+	private int columns;
+	// Front span of a pawn on a field, per color
+	private long[] whiteFrontSpan;
+	private long[] blackFrontSpan;
+	// Fields in front of a pawn in the adjacent columns, per color
+	private long[] whiteAdjacentSpan;
+	private long[] blackAdjacentSpan;
+	// Fields of a column
+	private long[] columnMasks;
+
+	// Evaluation tables, reused by every score calculation
+	// White support per column
+	private int whiteSupport[];
+	// Black support per column
+	private int blackSupport[];
+	// Space behind first white pawn (columnwise)
+	private int whiteSpaceBack[];
+	// Space behind first black pawn (columnwise)
+	private int blackSpaceBack[];
+
+	/**
+	 * Return an "infinite" number depending on the color, above the score of
+	 * every position which is not decided.
+	 *
+	 * @param player
+	 *            the player color
+	 * @return an "infinite" number
+	 */
+	private int infinite(Color player) {
+		switch (player) {
+		case WHITE:
+			return MAX_SCORE + 1;
+		case BLACK:
+			return -MAX_SCORE - 1;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Compute the masks of a board geometry.
+	 *
+	 * @param tables
+	 *            the move tables of the board
+	 */
+	private void computeMasks(MoveTables tables) {
+		int height = tables.height;
+		int width = tables.width;
+		int fields = height * width;
+		this.columns = Math.max(COLUMNS, width);
+		this.columnMasks = new long[width];
+		for (int field = 0; field < fields; field++) {
+			columnMasks[field % width] |= 1L << field;
+		}
+		this.whiteFrontSpan = new long[fields];
+		this.blackFrontSpan = new long[fields];
+		this.whiteAdjacentSpan = new long[fields];
+		this.blackAdjacentSpan = new long[fields];
+		for (int field = 0; field < fields; field++) {
+			int row = field / width;
+			int column = field % width;
+			long adjacentColumns = (column > 0 ? columnMasks[column - 1] : 0L)
+					| (column < width - 1 ? columnMasks[column + 1] : 0L);
+			long rowsAbove = (row + 1) * width >= Long.SIZE ? 0L : -1L << ((row + 1) * width);
+			long rowsBelow = (1L << (row * width)) - 1;
+			whiteFrontSpan[field] = columnMasks[column] & rowsAbove;
+			blackFrontSpan[field] = columnMasks[column] & rowsBelow;
+			whiteAdjacentSpan[field] = adjacentColumns & rowsAbove;
+			blackAdjacentSpan[field] = adjacentColumns & rowsBelow;
+		}
+		this.whiteSupport = new int[columns];
+		this.blackSupport = new int[columns];
+		this.whiteSpaceBack = new int[columns];
+		this.blackSpaceBack = new int[columns];
+		this.tables = tables;
+	}
+
+	/**
+	 * Score calculation of a possible move.
+	 *
+	 * @param position
+	 *            the position
+	 * @param player
+	 *            the player color
+	 * @return the score
+	 */
+	public int scoreCalculation(SearchPosition position, Color player) {
+		Color winner = position.winner(player);
+
+		if (winner != null) {
+			return infinite(winner);
+		}
+
+		MoveTables tables = position.moveTables();
+		if (tables != this.tables)
+			computeMasks(tables);
+		int width = tables.width;
+		long whitePawns = position.pawns(Color.WHITE);
+		long blackPawns = position.pawns(Color.BLACK);
+
+		// Reflects if a player is one move ahead
+		int score = MATERIAL * position.materialDifference();
+
+		// Pawns attacked by more opponent pawns than supported by own pawns
+		// lose the difference (attackers minus supporters)
+		long whiteAttacked = tables.leftCaptureTargets(Color.BLACK, blackPawns, whitePawns);
+		long whiteAttackedTwice = whiteAttacked & tables.rightCaptureTargets(Color.BLACK, blackPawns, whitePawns);
+		whiteAttacked |= tables.rightCaptureTargets(Color.BLACK, blackPawns, whitePawns);
+		long whiteSupported = tables.leftCaptureTargets(Color.WHITE, whitePawns, whitePawns);
+		long whiteSupportedTwice = whiteSupported & tables.rightCaptureTargets(Color.WHITE, whitePawns, whitePawns);
+		whiteSupported |= tables.rightCaptureTargets(Color.WHITE, whitePawns, whitePawns);
+		score -= MATERIAL * (Long.bitCount(whiteAttacked & ~whiteSupported)
+				+ Long.bitCount(whiteAttackedTwice & ~whiteSupportedTwice));
+
+		long blackAttacked = tables.leftCaptureTargets(Color.WHITE, whitePawns, blackPawns);
+		long blackAttackedTwice = blackAttacked & tables.rightCaptureTargets(Color.WHITE, whitePawns, blackPawns);
+		blackAttacked |= tables.rightCaptureTargets(Color.WHITE, whitePawns, blackPawns);
+		long blackSupported = tables.leftCaptureTargets(Color.BLACK, blackPawns, blackPawns);
+		long blackSupportedTwice = blackSupported & tables.rightCaptureTargets(Color.BLACK, blackPawns, blackPawns);
+		blackSupported |= tables.rightCaptureTargets(Color.BLACK, blackPawns, blackPawns);
+		score += MATERIAL * (Long.bitCount(blackAttacked & ~blackSupported)
+				+ Long.bitCount(blackAttackedTwice & ~blackSupportedTwice));
+
+		// Double pawns, support per column (pawns in the column and the
+		// adjacent ones) and the row of the most advanced pawn per column
+		int last = columns - 1;
+		for (int column = 0; column < columns; column++) {
+			whiteSupport[column] = 0;
+			blackSupport[column] = 0;
+			whiteSpaceBack[column] = 0;
+			blackSpaceBack[column] = 0;
+		}
+		for (int column = 0; column < width; column++) {
+			int whiteCount = position.fileCount(Color.WHITE, column);
+			int blackCount = position.fileCount(Color.BLACK, column);
+			if (whiteCount > 1)
+				score -= whiteCount - 1;
+			if (blackCount > 1)
+				score += blackCount - 1;
+			for (int supported = Math.max(0, column - 1); supported <= Math.min(column + 1, last); supported++) {
+				whiteSupport[supported] += whiteCount;
+				blackSupport[supported] += blackCount;
+			}
+			if (whiteCount > 0)
+				whiteSpaceBack[column] = (63 - Long.numberOfLeadingZeros(whitePawns & columnMasks[column])) / width;
+			if (blackCount > 0)
+				blackSpaceBack[column] = Long.numberOfTrailingZeros(blackPawns & columnMasks[column]) / width - 7;
+		}
+
+		// Calculate minimum moves
+		// The closer the passed pawn the more points
+		// Find column score and aspire winnings pawns with more support
+		int minMovesWhite = 1000;
+		int minMovesBlack = 1000;
+		int supporter;
+		for (int i = 0; i < columns; i++) {
+			if (whiteSupport[i] > blackSupport[i]) {
+				if (i == 0)
+					supporter = 7 - whiteSpaceBack[i + 1];
+				else if (i == last)
+					supporter = 7 - whiteSpaceBack[i - 1];
+				else
+					supporter = 7 - Math.max(whiteSpaceBack[i - 1], whiteSpaceBack[i + 1]);
+
+				minMovesWhite = 7 - whiteSpaceBack[i] + supporter - 2;
+			} else if (whiteSupport[i] < blackSupport[i]) {
+				if (i == 0)
+					supporter = blackSpaceBack[i + 1] + 7;
+				else if (i == last)
+					supporter = blackSpaceBack[i - 1] + 7;
+				else
+					supporter = 7 + Math.min(blackSpaceBack[i - 1], blackSpaceBack[i + 1]);
+				minMovesBlack = blackSpaceBack[i] + 7 + supporter - 2;
+			}
+		}
+
+		// Most advanced passed pawns: no pawn in front in the column and no
+		// opponent pawn in front in the adjacent columns
+		long allPawns = whitePawns | blackPawns;
+		int whiteBestPassed = -1;
+		for (long bits = whitePawns; bits != 0;) {
+			int field = 63 - Long.numberOfLeadingZeros(bits);
+			if ((whiteFrontSpan[field] & allPawns) == 0 && (whiteAdjacentSpan[field] & blackPawns) == 0) {
+				whiteBestPassed = field / width;
+				break;
+			}
+			bits ^= 1L << field;
+		}
+		int blackBestPassed = 100;
+		for (long bits = blackPawns; bits != 0; bits &= bits - 1) {
+			int field = Long.numberOfTrailingZeros(bits);
+			if ((blackFrontSpan[field] & allPawns) == 0 && (blackAdjacentSpan[field] & whitePawns) == 0) {
+				blackBestPassed = field / width;
+				break;
+			}
+		}
+
+		if (whiteBestPassed == -1 && blackBestPassed == 100)
+			return score;
+
+		whiteBestPassed = 7 - whiteBestPassed;
+		if (whiteBestPassed < blackBestPassed && whiteBestPassed < minMovesBlack)
+			score += RACE_WON;
+
+		if (blackBestPassed < whiteBestPassed && blackBestPassed < minMovesWhite)
+			score -= RACE_WON;
+
+		// A race won is no game end, it must not score like one
+		return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+
+	}
+}
@@ -0,0 +1,175 @@
+package students.chetelatmarcalain.search;
+
+import java.util.Arrays;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.MoveTables;
+import students.chetelatmarcalain.game.SearchPosition;
+
+/**
+ * Sorts the moves of a node so that alpha-beta cuts off as early as
+ * possible. The order is: the move of the transposition table, captures,
+ * advances to the two rows before the last row (6th and 7th rank on a board
+ * with 8 rows), the killer moves of the level and all other moves. Within
+ * each group the moves are sorted by their history score.
+ *
+ * Killer moves are quiet moves that caused a cutoff on the same level, the
+ * history score counts the cutoffs of a move (weighted with the remaining
+ * depth) over the whole search. An instance belongs to one searcher.
+ *
+ * @author mac
+ *
+ */
+public class MoveOrdering {
+
+	// Ranks of the groups, the history score is added within a group
+	private static final int HASH_MOVE = 1 << 30;
+	private static final int CAPTURE = 1 << 29;
+	private static final int ADVANCE = 1 << 28;
+	private static final int KILLER = 1 << 27;
+
+	// History scores are halved when they reach this value, so they stay
+	// below the ranks of the groups
+	private static final int MAX_HISTORY = 1 << 26;
+
+	// Killer moves per level
+	private static final int KILLERS = 2;
+
+	private final int[][] killers = new int[Searcher.MAX_LEVEL + 1][KILLERS];
+
+	// Cutoffs per player, origin and destination of the move
+	private final int[][] history = new int[2][Board.MAX_FIELDS * Board.MAX_FIELDS];
+
+	// Sort keys per level, reused by every node on the same level
+	private final int[][] scores = new int[Searcher.MAX_LEVEL + 1][3 * Board.MAX_FIELDS];
+
+	/**
+	 * Prepare the search of a new position: the killer moves are removed, the
+	 * history scores are kept with half of their weight.
+	 */
+	public void newSearch() {
+		for (int[] levelKillers : killers) {
+			Arrays.fill(levelKillers, 0);
+		}
+		for (int[] playerHistory : history) {
+			for (int i = 0; i < playerHistory.length; i++) {
+				playerHistory[i] >>= 1;
+			}
+		}
+	}
+
+	/**
+	 * Sort the moves of a node, best first.
+	 *
+	 * @param position
+	 *            the position
+	 * @param player
+	 *            the player to move
+	 * @param level
+	 *            the level of the node
+	 * @param moves
+	 *            the moves generated for the node
+	 * @param moveCount
+	 *            the number of moves
+	 * @param hashMove
+	 *            the best move of the transposition table, 0 if unknown
+	 */
+	public void sort(SearchPosition position, Color player, int level, int[] moves, int moveCount, int hashMove) {
+		MoveTables tables = position.moveTables();
+		long opponents = position.pawns(player.getOtherColor());
+		long advanced = advancedRows(tables, player);
+		int[] playerHistory = history[player.ordinal()];
+		int[] levelKillers = killers[level];
+		int[] keys = scores[level];
+
+		for (int i = 0; i < moveCount; i++) {
+			int move = moves[i];
+			long toBit = 1L << SearchPosition.to(move);
+			int score = playerHistory[historyIndex(move)];
+			if (move == hashMove)
+				score += HASH_MOVE;
+			else if ((opponents & toBit) != 0)
+				score += CAPTURE;
+			else if ((advanced & toBit) != 0)
+				score += ADVANCE;
+			else if (move == levelKillers[0] || move == levelKillers[1])
+				score += KILLER;
+			keys[i] = score;
+		}
+
+		// Insertion sort, there are only a few moves per node
+		for (int i = 1; i < moveCount; i++) {
+			int move = moves[i];
+			int score = keys[i];
+			int j = i - 1;
+			while (j >= 0 && keys[j] < score) {
+				moves[j + 1] = moves[j];
+				keys[j + 1] = keys[j];
+				j--;
+			}
+			moves[j + 1] = move;
+			keys[j + 1] = score;
+		}
+	}
+
+	/**
+	 * Record a move which caused a cutoff.
+	 *
+	 * @param position
+	 *            the position before the move
+	 * @param player
+	 *            the player who moved
+	 * @param level
+	 *            the level of the node
+	 * @param depth
+	 *            the remaining depth of the node
+	 * @param move
+	 *            the move
+	 */
+	public void cutoff(SearchPosition position, Color player, int level, int depth, int move) {
+		int[] playerHistory = history[player.ordinal()];
+		int index = historyIndex(move);
+		playerHistory[index] += depth * depth;
+		if (playerHistory[index] >= MAX_HISTORY) {
+			for (int i = 0; i < playerHistory.length; i++) {
+				playerHistory[i] >>= 1;
+			}
+		}
+
+		// Captures are searched early anyway
+		if ((position.pawns(player.getOtherColor()) & (1L << SearchPosition.to(move))) != 0)
+			return;
+		int[] levelKillers = killers[level];
+		if (levelKillers[0] != move) {
+			levelKillers[1] = levelKillers[0];
+			levelKillers[0] = move;
+		}
+	}
+
+	private static int historyIndex(int move) {
+		return SearchPosition.from(move) * Board.MAX_FIELDS + SearchPosition.to(move);
+	}
+
+	/**
+	 * The two rows before the last row of a player.
+	 *
+	 * @param tables
+	 *            the move tables of the board
+	 * @param player
+	 *            the player color
+	 * @return the fields of the rows
+	 */
+	private static long advancedRows(MoveTables tables, Color player) {
+		int offset = tables.forwardOffset(player);
+		long secondLastRow = back(tables.lastRow(player), offset);
+		return secondLastRow | back(secondLastRow, offset);
+	}
+
+	// Moves the fields one row back, against the forward offset
+	private static long back(long fields, int offset) {
+		if (Math.abs(offset) >= Long.SIZE)
+			return 0L;
+		return offset > 0 ? fields >>> offset : fields << -offset;
+	}
+}
@@ -0,0 +1,794 @@
+package students.chetelatmarcalain.search;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.tablebase.Tablebase;
+import students.chetelatmarcalain.game.SearchPosition;
+
+/**
+ * The state of one search thread: an alpha-beta search with chance nodes
+ * (expectiminimax) and iterative deepening. Searchers of the same agent
+ * share the transposition table, everything else belongs to the searcher.
+ * 
+ * @author mac
+ *
+ */
+public class Searcher {
+
+	// No score is outside of [-SCORE_BOUND, SCORE_BOUND], needed to prune
+	// chance nodes. A game won at level l scores SCORE_BOUND - l (negative
+	// if black wins), so shorter wins are better, and every game end is
+	// better than the evaluation of an undecided position.
+	private final int SCORE_BOUND = 20000;
+
+	// Scores beyond this (game ends and tablebase results) depend on the
+	// level they were found at, they are stored relative to the node in the
+	// transposition table
+	private final int LEVEL_SCORE_THRESHOLD = Evaluation.MAX_SCORE;
+
+	// Returned by probeCutoff if there is no cutoff
+	private final int NO_CUTOFF = Integer.MIN_VALUE;
+
+	// A position won according to the tablebase at level l, d moves before
+	// the end of the game, scores TABLEBASE_WIN - l - d (negative if black
+	// wins): below every game end found by the search and above every
+	// evaluation, even at MAX_LEVEL with the longest distance.
+	private final int TABLEBASE_WIN = 15000;
+
+	// Time (ns) until the deadline of a search without one: far enough to
+	// never pass, close enough that differences of System.nanoTime values
+	// (which may be negative) do not overflow
+	private static final long NO_DEADLINE = Long.MAX_VALUE / 2;
+
+	// Deepest iteration of the iterative deepening
+	public static final int MAX_LEVEL = 64;
+
+	// Half width of the aspiration window around the score of the last
+	// iteration, widened by ASPIRATION_GROWTH while the search fails
+	private final int ASPIRATION_WINDOW = 50;
+	private final int ASPIRATION_GROWTH = 4;
+
+	// Largest gain of a capture in the evaluation: the captured pawn and the
+	// hanging pawns it may resolve. Captures which can not lift the score to
+	// the window even so are not searched (delta pruning).
+	private final int DELTA_MARGIN = 150;
+
+	// Nodes searched between two checks of the clock (power of 2)
+	private final int NODES_PER_CHECK = 1024;
+
+	private final TranspositionTable transpositionTable;
+
+	private final Evaluation evaluation = new Evaluation();
+
+	private final MoveOrdering moveOrdering = new MoveOrdering();
+
+	// Solved endgames, null if not available
+	private Tablebase tablebase;
+
+	// Moves per level, reused by every node on the same level
+	private final int[][] moveBuffers = new int[MAX_LEVEL + 1][3 * Board.MAX_FIELDS];
+
+	// Probability that the player who moved moves again
+	private double probabilitySameMover;
+
+	// Level at which the current search evaluates the positions
+	private int maxLevel;
+
+	// Time (System.nanoTime) after which the search is aborted
+	private long hardDeadline = noDeadline(System.nanoTime());
+
+	// Set by another thread to end the search
+	private volatile boolean stopped;
+
+	private boolean aborted;
+
+	// Set if a position was searched at maxLevel, the search is complete
+	// otherwise
+	private boolean horizonReached;
+
+	// Nodes searched since start
+	private long nodes;
+
+	// Best move of the current iteration
+	private int rootBestMove;
+
+	/**
+	 * C'tor.
+	 * 
+	 * @param transpositionTable
+	 *            the table, may be shared with other searchers
+	 */
+	public Searcher(TranspositionTable transpositionTable) {
+		this.transpositionTable = transpositionTable;
+	}
+
+	/**
+	 * @param probabilitySameMover
+	 *            the probability that the player who moved moves again
+	 */
+	public void setProbabilitySameMover(double probabilitySameMover) {
+		this.probabilitySameMover = probabilitySameMover;
+	}
+
+	/**
+	 * @param tablebase
+	 *            the solved endgames, null to search them as well. The
+	 *            tablebase is only used if the players move alternately.
+	 */
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * The deadline of a search which only ends when it is stopped or
+	 * complete, to pass to {@link #start(long)} or as soft deadline.
+	 * 
+	 * @param start
+	 *            the time (System.nanoTime) the search starts
+	 * @return the deadline
+	 */
+	public static long noDeadline(long start) {
+		return start + NO_DEADLINE;
+	}
+
+	/**
+	 * Prepare a new search.
+	 * 
+	 * @param hardDeadline
+	 *            the time (System.nanoTime) at which the search is aborted,
+	 *            see {@link #noDeadline(long)} for none
+	 */
+	public void start(long hardDeadline) {
+		this.hardDeadline = hardDeadline;
+		this.stopped = false;
+		this.nodes = 0;
+		moveOrdering.newSearch();
+	}
+
+	/**
+	 * Abort the search, may be called from any thread. Interrupting the
+	 * thread of the search aborts it too.
+	 */
+	public void stop() {
+		this.stopped = true;
+	}
+
+	/**
+	 * Search to a fixed level.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param level
+	 *            the level of the position
+	 * @param maxLevel
+	 *            the level at which positions are evaluated
+	 * @param player
+	 *            the player to move
+	 * @param alpha
+	 * @param beta
+	 * @return the score, 0 if the search was aborted
+	 */
+	public int search(SearchPosition position, int level, int maxLevel, Color player, int alpha, int beta) {
+		this.maxLevel = maxLevel;
+		this.aborted = false;
+		this.horizonReached = false;
+		this.rootBestMove = 0;
+		return minimax(position, level, player, alpha, beta);
+	}
+
+	/**
+	 * @return the nodes searched since the last start
+	 */
+	public long nodes() {
+		return nodes;
+	}
+
+	/**
+	 * Iterative deepening up to MAX_LEVEL, see
+	 * {@link #iterate(SearchPosition, Color, int, int, long, long)}.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param player
+	 *            the player to move
+	 * @param firstLevel
+	 *            the level of the first iteration
+	 * @param start
+	 *            the time (System.nanoTime) the search started
+	 * @param softDeadline
+	 *            the time (System.nanoTime) after which no iteration is
+	 *            started
+	 * @return the best move of the last complete iteration, 0 if none
+	 *         completed
+	 */
+	public int iterate(SearchPosition position, Color player, int firstLevel, long start, long softDeadline) {
+		return iterate(position, player, firstLevel, MAX_LEVEL, start, softDeadline);
+	}
+
+	/**
+	 * Iterative deepening: search with increasing levels until the search is
+	 * aborted, the tree is searched completely, the last level is searched
+	 * or the soft deadline has passed. An iteration is not started if half of
+	 * the time until the soft deadline is used, as it takes longer than all
+	 * previous ones.
+	 * 
+	 * Iterations after the first one search a window around the score of the
+	 * previous iteration (aspiration window), which is widened if the score
+	 * is outside.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param player
+	 *            the player to move
+	 * @param firstLevel
+	 *            the level of the first iteration
+	 * @param lastLevel
+	 *            the level of the last iteration, at most MAX_LEVEL
+	 * @param start
+	 *            the time (System.nanoTime) the search started
+	 * @param softDeadline
+	 *            the time (System.nanoTime) after which no iteration is
+	 *            started
+	 * @return the best move of the last complete iteration, 0 if none
+	 *         completed
+	 */
+	public int iterate(SearchPosition position, Color player, int firstLevel, int lastLevel, long start,
+			long softDeadline) {
+		int completedMove = 0;
+		long halfTime = (softDeadline - start) / 2;
+		int score = 0;
+		for (int level = firstLevel; level <= Math.min(lastLevel, MAX_LEVEL); level++) {
+			int window = ASPIRATION_WINDOW;
+			int alpha = level == firstLevel ? Integer.MIN_VALUE : score - window;
+			int beta = level == firstLevel ? Integer.MAX_VALUE : score + window;
+			while (true) {
+				score = search(position, 0, level, player, alpha, beta);
+				if (aborted)
+					break;
+				if (score <= alpha && alpha != Integer.MIN_VALUE) {
+					window *= ASPIRATION_GROWTH;
+					alpha = window > SCORE_BOUND ? Integer.MIN_VALUE : score - window;
+				} else if (score >= beta && beta != Integer.MAX_VALUE) {
+					window *= ASPIRATION_GROWTH;
+					beta = window > SCORE_BOUND ? Integer.MAX_VALUE : score + window;
+				} else {
+					break;
+				}
+			}
+			if (aborted)
+				// Use the move of the last complete iteration
+				break;
+			completedMove = rootBestMove;
+			if (!horizonReached)
+				// The whole game tree has been searched
+				break;
+			// The next iteration takes longer than all previous ones
+			if (System.nanoTime() - start > halfTime)
+				break;
+		}
+		return completedMove;
+	}
+
+	/**
+	 * @return the best move found at level 0 by the last search, 0 if none
+	 */
+	public int rootBestMove() {
+		return rootBestMove;
+	}
+
+	/**
+	 * Recursive function to simulate the game. Moves are made and taken back
+	 * on the given position, which is unchanged when the method returns.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param level
+	 *            the level
+	 * @param player
+	 *            the player color
+	 * @param alpha
+	 * @param beta
+	 * @return
+	 */
+	private int minimax(SearchPosition position, int level, Color player, int alpha, int beta) {
+		int nodeScore;
+
+		if (checkAbort())
+			return 0;
+
+		// Solved endgames are exact, they do not need a search
+		if (tablebase != null && level > 0 && probabilitySameMover <= 0.0) {
+			int value = tablebase.probe(position.pawns(Color.WHITE), position.pawns(Color.BLACK), player);
+			if (value != Tablebase.UNKNOWN)
+				return tablebaseScore(value, player, level);
+		}
+
+		Color winner = position.winner(player);
+		if (winner != null)
+			return winScore(winner, level);
+		if (level == maxLevel) {
+			horizonReached = true;
+			return quiescence(position, level, player, alpha, beta);
+		}
+
+		// Look up results of earlier searches of this position
+		long key = position.key(player);
+		int depth = maxLevel - level;
+		long entry = transpositionTable.probe(key);
+		int hashMove = TranspositionTable.move(entry);
+		if (level > 0 && TranspositionTable.bound(entry) != 0 && TranspositionTable.depth(entry) >= depth) {
+			// The stored result may have been limited by a horizon
+			horizonReached = true;
+			int hashScore = fromTable(TranspositionTable.score(entry), level);
+			switch (TranspositionTable.bound(entry)) {
+			case TranspositionTable.EXACT:
+				return hashScore;
+			case TranspositionTable.LOWER_BOUND:
+				if (hashScore >= beta)
+					return beta;
+				break;
+			case TranspositionTable.UPPER_BOUND:
+				if (hashScore <= alpha)
+					return alpha;
+				break;
+			default:
+				break;
+			}
+		}
+
+		int[] moves = moveBuffers[level];
+		int moveCount = position.generateMoves(player, moves);
+		moveOrdering.sort(position, player, level, moves, moveCount, hashMove);
+		int bestMove = 0;
+		int originalAlpha = alpha;
+		int originalBeta = beta;
+		// Principal variation search: the moves after the first one are
+		// searched with a null window. This does not pay off through chance
+		// nodes, their windows are widened anyway.
+		boolean nullWindows = probabilitySameMover <= 0.0 || probabilitySameMover >= 1.0;
+
+		switch (player) {
+		case WHITE:
+			for (int i = 0; i < moveCount; i++) {
+				int move = moves[i];
+
+				// Apply move (beaten opponent figures are removed)
+				position.make(move);
+				if (i == 0 || !nullWindows) {
+					nodeScore = chance(position, level + 1, player, alpha, beta);
+				} else {
+					// Null window: only prove that the move is not better
+					// than the best one so far, search again if it is
+					nodeScore = chance(position, level + 1, player, alpha, alpha + 1);
+					if (nodeScore > alpha && nodeScore < beta && !aborted)
+						nodeScore = chance(position, level + 1, player, alpha, beta);
+				}
+				// Un-apply move (and re-add the beaten figure)
+				position.unmake(move);
+				if (aborted)
+					return 0;
+
+				if (nodeScore > alpha) {
+					alpha = nodeScore;
+					bestMove = move;
+					if (level == 0)
+						this.rootBestMove = move;
+				}
+				if (alpha >= beta) {
+					// No need to consider further
+					moveOrdering.cutoff(position, player, level, depth, move);
+					break;
+				}
+			}
+			storeResult(key, level, depth, alpha, originalAlpha, beta, bestMove);
+			return alpha;
+		case BLACK:
+			for (int i = 0; i < moveCount; i++) {
+				int move = moves[i];
+
+				position.make(move);
+				if (i == 0 || !nullWindows) {
+					nodeScore = chance(position, level + 1, player, alpha, beta);
+				} else {
+					nodeScore = chance(position, level + 1, player, beta - 1, beta);
+					if (nodeScore < beta && nodeScore > alpha && !aborted)
+						nodeScore = chance(position, level + 1, player, alpha, beta);
+				}
+				position.unmake(move);
+				if (aborted)
+					return 0;
+
+				if (nodeScore < beta) {
+					beta = nodeScore;
+					bestMove = move;
+					if (level == 0)
+						this.rootBestMove = move;
+				}
+				if (alpha >= beta) {
+					moveOrdering.cutoff(position, player, level, depth, move);
+					break;
+				}
+			}
+			storeResult(key, level, depth, beta, alpha, originalBeta, bestMove);
+			return beta;
+
+		default:
+			return Integer.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * Quiescence search at the horizon: only the tactical moves (captures and
+	 * pushes to the last rows) are searched, until the position is quiet. The
+	 * player to move may also stand pat, i.e. keep the evaluation of the
+	 * position, which bounds the score from below (white) or above (black).
+	 * Captures which can not reach the window by the gain of one capture are
+	 * skipped (delta pruning).
+	 * 
+	 * The quiescence search has no chance nodes: the player moving after a
+	 * move is the more probable one.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param level
+	 *            the level
+	 * @param player
+	 *            the player color
+	 * @param alpha
+	 * @param beta
+	 * @return
+	 */
+	private int quiescence(SearchPosition position, int level, Color player, int alpha, int beta) {
+		if (checkAbort())
+			return 0;
+
+		Color winner = position.winner(player);
+		if (winner != null)
+			return winScore(winner, level);
+		int standPat = evaluate(position, player);
+		if (level >= MAX_LEVEL)
+			return standPat;
+
+		Color next = probabilitySameMover > 0.5 ? player : player.getOtherColor();
+		long advanced = position.advancedRows(player);
+		int[] moves = moveBuffers[level];
+		int moveCount = position.generateTacticalMoves(player, moves);
+		int nodeScore;
+
+		switch (player) {
+		case WHITE:
+			if (standPat >= beta)
+				return beta;
+			if (standPat > alpha)
+				alpha = standPat;
+			for (int i = 0; i < moveCount; i++) {
+				int move = moves[i];
+				if ((advanced & (1L << SearchPosition.to(move))) == 0 && standPat + DELTA_MARGIN <= alpha)
+					continue;
+
+				position.make(move);
+				nodeScore = quiescence(position, level + 1, next, alpha, beta);
+				position.unmake(move);
+				if (aborted)
+					return 0;
+
+				if (nodeScore > alpha) {
+					alpha = nodeScore;
+					if (alpha >= beta)
+						return beta;
+				}
+			}
+			return alpha;
+		case BLACK:
+			if (standPat <= alpha)
+				return alpha;
+			if (standPat < beta)
+				beta = standPat;
+			for (int i = 0; i < moveCount; i++) {
+				int move = moves[i];
+				if ((advanced & (1L << SearchPosition.to(move))) == 0 && standPat - DELTA_MARGIN >= beta)
+					continue;
+
+				position.make(move);
+				nodeScore = quiescence(position, level + 1, next, alpha, beta);
+				position.unmake(move);
+				if (aborted)
+					return 0;
+
+				if (nodeScore < beta) {
+					beta = nodeScore;
+					if (alpha >= beta)
+						return alpha;
+				}
+			}
+			return beta;
+
+		default:
+			return Integer.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * The score of a game won at a level: the sooner, the better for the
+	 * winner.
+	 * 
+	 * @param winner
+	 *            the color of the winner
+	 * @param level
+	 *            the level
+	 * @return the score
+	 */
+	private int winScore(Color winner, int level) {
+		return winner == Color.WHITE ? SCORE_BOUND - level : level - SCORE_BOUND;
+	}
+
+	/**
+	 * A score relative to the node at a level, as stored in the
+	 * transposition table: a score depending on the level is stored as if
+	 * the node was at level 0, so the entry is valid at any level.
+	 * 
+	 * @param score
+	 *            the score
+	 * @param level
+	 *            the level of the node
+	 * @return the score to store
+	 */
+	private int toTable(int score, int level) {
+		if (!isLevelScore(score))
+			return score;
+		return score > 0 ? score + level : score - level;
+	}
+
+	/**
+	 * The score of a transposition table entry for the node at a level, see
+	 * {@link #toTable(int, int)}.
+	 * 
+	 * @param score
+	 *            the stored score
+	 * @param level
+	 *            the level of the node
+	 * @return the score
+	 */
+	private int fromTable(int score, int level) {
+		if (!isLevelScore(score))
+			return score;
+		return score > 0 ? score - level : score + level;
+	}
+
+	/**
+	 * Check if a score depends on the level it was found at. The unbounded
+	 * window ends (Integer.MIN_VALUE, Integer.MAX_VALUE) do not.
+	 * 
+	 * @param score
+	 *            the score, stored or not
+	 * @return true if the score is stored relative to the node
+	 */
+	private boolean isLevelScore(int score) {
+		int magnitude = Math.abs(score);
+		return magnitude > LEVEL_SCORE_THRESHOLD && magnitude <= SCORE_BOUND + 1 + MAX_LEVEL;
+	}
+
+	/**
+	 * The evaluation of a position, limited to the scores.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param player
+	 *            the player to move
+	 * @return the score
+	 */
+	private int evaluate(SearchPosition position, Color player) {
+		return Math.max(-SCORE_BOUND, Math.min(SCORE_BOUND, evaluation.scoreCalculation(position, player)));
+	}
+
+	/**
+	 * Count a node and check every NODES_PER_CHECK nodes if the search has to
+	 * be aborted: it was stopped, its thread interrupted or the hard deadline
+	 * has passed.
+	 * 
+	 * @return true if the search is aborted
+	 */
+	private boolean checkAbort() {
+		if ((++nodes & (NODES_PER_CHECK - 1)) == 0 && (stopped || System.nanoTime() - hardDeadline > 0
+				|| Thread.currentThread().isInterrupted()))
+			aborted = true;
+		return aborted;
+	}
+
+	/**
+	 * The score of a tablebase value at a level, counting the moves to the
+	 * end of the game from the root like {@link #winScore(Color, int)}: the
+	 * sooner, the better for the winner. A tablebase win scores less than
+	 * any game end reached by the search, but more than any evaluation.
+	 * 
+	 * @param value
+	 *            the value of the position
+	 * @param player
+	 *            the player to move
+	 * @param level
+	 *            the level
+	 * @return the score
+	 */
+	private int tablebaseScore(int value, Color player, int level) {
+		int score = TABLEBASE_WIN - level - Tablebase.distance(value);
+		boolean whiteWins = Tablebase.isWin(value) == (player == Color.WHITE);
+		return whiteWins ? score : -score;
+	}
+
+	/**
+	 * Chance node after a move: with probabilitySameMover the player who
+	 * moved moves again, otherwise the opponent moves. The score is the
+	 * expected score of both outcomes (expectiminimax).
+	 * 
+	 * The outcomes are pruned with Star1: as every score is within
+	 * [-SCORE_BOUND, SCORE_BOUND], the window of an outcome can be narrowed
+	 * to the scores which keep the expected score inside (alpha, beta).
+	 * Before, Star2 probing tries to cut the node off by searching only the
+	 * first move of an outcome, where this can be sufficient.
+	 * 
+	 * @param position
+	 *            the position after the move
+	 * @param level
+	 *            the level of the next move
+	 * @param lastMover
+	 *            the player who moved
+	 * @param alpha
+	 * @param beta
+	 * @return
+	 */
+	private int chance(SearchPosition position, int level, Color lastMover, int alpha, int beta) {
+		Color opponent = lastMover.getOtherColor();
+		if (probabilitySameMover <= 0.0)
+			return minimax(position, level, opponent, alpha, beta);
+		if (probabilitySameMover >= 1.0)
+			return minimax(position, level, lastMover, alpha, beta);
+
+		double probabilityWhite = lastMover == Color.WHITE ? probabilitySameMover : 1.0 - probabilitySameMover;
+		int cutoff = probeCutoff(position, level, probabilityWhite, alpha, beta);
+		if (aborted)
+			return 0;
+		if (cutoff != NO_CUTOFF)
+			return cutoff;
+
+		// Search the more probable outcome first
+		Color first = probabilityWhite >= 0.5 ? Color.WHITE : Color.BLACK;
+		double firstProbability = first == Color.WHITE ? probabilityWhite : 1.0 - probabilityWhite;
+		double secondProbability = 1.0 - firstProbability;
+
+		int firstScore = minimax(position, level, first,
+				lowerWindow((alpha - secondProbability * SCORE_BOUND) / firstProbability),
+				upperWindow((beta + secondProbability * SCORE_BOUND) / firstProbability));
+		if (aborted)
+			return 0;
+		double expected = firstProbability * firstScore;
+		if (expected + secondProbability * SCORE_BOUND <= alpha)
+			return alpha;
+		if (expected - secondProbability * SCORE_BOUND >= beta)
+			return beta;
+
+		int secondScore = minimax(position, level, first.getOtherColor(),
+				lowerWindow((alpha - expected) / secondProbability), upperWindow((beta - expected) / secondProbability));
+		if (aborted)
+			return 0;
+		return (int) Math.round(expected + secondProbability * secondScore);
+	}
+
+	/**
+	 * Star2 probing of a chance node. The first move of white gives a lower
+	 * bound of the white outcome, the first move of black an upper bound of
+	 * the black outcome. Combined with the score bounds of the other outcome,
+	 * this may already show that the node is outside of (alpha, beta).
+	 * 
+	 * @param position
+	 *            the position
+	 * @param level
+	 *            the level of the next move
+	 * @param probabilityWhite
+	 *            the probability that white moves next
+	 * @param alpha
+	 * @param beta
+	 * @return alpha or beta if the node can be cut off, NO_CUTOFF otherwise
+	 */
+	private int probeCutoff(SearchPosition position, int level, double probabilityWhite, int alpha, int beta) {
+		double probabilityBlack = 1.0 - probabilityWhite;
+		// Only probe if a bound of the probed outcome can be sufficient
+		if ((probabilityWhite - probabilityBlack) * SCORE_BOUND >= beta) {
+			// White's score needed to reach beta, black's score at its
+			// minimum
+			int needed = upperWindow((beta + probabilityBlack * SCORE_BOUND) / probabilityWhite);
+			if (probeFirstMove(position, level, Color.WHITE, needed - 1, needed) >= needed)
+				return beta;
+		}
+		if ((probabilityWhite - probabilityBlack) * SCORE_BOUND <= alpha) {
+			int needed = lowerWindow((alpha - probabilityWhite * SCORE_BOUND) / probabilityBlack);
+			if (probeFirstMove(position, level, Color.BLACK, needed, needed + 1) <= needed)
+				return alpha;
+		}
+		return NO_CUTOFF;
+	}
+
+	/**
+	 * Search only the first move in the order of the move ordering (the best
+	 * move of an earlier search if known) of a player.
+	 * 
+	 * @param position
+	 *            the position
+	 * @param level
+	 *            the level
+	 * @param player
+	 *            the player to move
+	 * @param alpha
+	 * @param beta
+	 * @return the score of the move, or alpha (white) / beta (black) if the
+	 *         position is evaluated without search, as that does not give a
+	 *         bound
+	 */
+	private int probeFirstMove(SearchPosition position, int level, Color player, int alpha, int beta) {
+		if (level == maxLevel || position.winner(player) != null)
+			return player == Color.WHITE ? alpha : beta;
+
+		int[] moves = moveBuffers[level];
+		int moveCount = position.generateMoves(player, moves);
+		int hashMove = TranspositionTable.move(transpositionTable.probe(position.key(player)));
+		moveOrdering.sort(position, player, level, moves, moveCount, hashMove);
+		int move = moves[0];
+
+		position.make(move);
+		int score = chance(position, level + 1, player, alpha, beta);
+		position.unmake(move);
+		return score;
+	}
+
+	/**
+	 * The lower end of a window, rounded down and limited to the scores.
+	 * 
+	 * @param bound
+	 *            the exact bound
+	 * @return the window bound
+	 */
+	private int lowerWindow(double bound) {
+		return (int) Math.max(-SCORE_BOUND - 1, Math.min(SCORE_BOUND + 1, Math.floor(bound)));
+	}
+
+	/**
+	 * The upper end of a window, rounded up and limited to the scores.
+	 * 
+	 * @param bound
+	 *            the exact bound
+	 * @return the window bound
+	 */
+	private int upperWindow(double bound) {
+		return (int) Math.max(-SCORE_BOUND - 1, Math.min(SCORE_BOUND + 1, Math.ceil(bound)));
+	}
+
+	/**
+	 * Store the result of a node in the transposition table. The bound type
+	 * follows from the window the node was searched with.
+	 * 
+	 * @param key
+	 *            the position key
+	 * @param level
+	 *            the level of the node
+	 * @param depth
+	 *            the remaining depth
+	 * @param score
+	 *            the result of the node
+	 * @param alpha
+	 *            the lower end of the window
+	 * @param beta
+	 *            the upper end of the window
+	 * @param bestMove
+	 *            the best move, 0 if none was better than the window
+	 */
+	private void storeResult(long key, int level, int depth, int score, int alpha, int beta, int bestMove) {
+		int bound;
+		if (score <= alpha)
+			bound = TranspositionTable.UPPER_BOUND;
+		else if (score >= beta)
+			bound = TranspositionTable.LOWER_BOUND;
+		else
+			bound = TranspositionTable.EXACT;
+		transpositionTable.store(key, depth, bound, toTable(score, level), bestMove);
+	}
+
+}
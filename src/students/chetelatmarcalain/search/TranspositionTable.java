@@ -0,0 +1,174 @@
+package students.chetelatmarcalain.search;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size table of search results, indexed by the Zobrist key of the
+ * position. Every entry stores the full key, the remaining search depth, the
+ * type of the bound, the score and the best move found.
+ *
+ * Replacement policy: an entry is replaced if it belongs to the same
+ * position, was stored during an earlier search, or was searched less deep
+ * than the new result.
+ *
+ * The table may be shared by several search threads without locking. The key
+ * is stored xor-ed with the data, so an entry written by two threads at the
+ * same time does not match any key and is treated as missing.
+ *
+ * @author mac
+ *
+ */
+public class TranspositionTable {
+
+	/**
+	 * The score is exact.
+	 */
+	public static final int EXACT = 1;
+
+	/**
+	 * The score is a lower bound (the search failed high).
+	 */
+	public static final int LOWER_BOUND = 2;
+
+	/**
+	 * The score is an upper bound (the search failed low).
+	 */
+	public static final int UPPER_BOUND = 3;
+
+	// Bytes used per entry (key and data)
+	private static final int ENTRY_SIZE = 16;
+
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+
+	// Incremented for every search, to prefer replacing old entries
+	private int age;
+
+	/**
+	 * Creates a table using at most the given memory.
+	 *
+	 * @param megabytes
+	 *            the memory budget in megabytes (at least 1)
+	 */
+	public TranspositionTable(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("The transposition table needs at least 1 MB");
+		}
+		long entries = Long.highestOneBit(megabytes * 1024L * 1024L / ENTRY_SIZE);
+		// Array size is limited to an int
+		entries = Math.min(entries, 1L << 30);
+		this.keys = new long[(int) entries];
+		this.data = new long[(int) entries];
+		this.mask = (int) entries - 1;
+	}
+
+	/**
+	 * Marks the start of a new search. Entries from earlier searches are
+	 * replaced first.
+	 */
+	public void newSearch() {
+		age = (age + 1) & 0x3F;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		Arrays.fill(data, 0L);
+	}
+
+	/**
+	 * Look up a position.
+	 *
+	 * @param key
+	 *            the Zobrist key of the position
+	 * @return the packed entry, 0 if the position is not in the table. Use
+	 *         the static accessors to read it.
+	 */
+	public long probe(long key) {
+		int index = (int) key & mask;
+		long entry = data[index];
+		if ((keys[index] ^ entry) == key) {
+			return entry;
+		}
+		return 0L;
+	}
+
+	/**
+	 * Store a search result.
+	 *
+	 * @param key
+	 *            the Zobrist key of the position
+	 * @param depth
+	 *            the remaining depth searched (0 - 255)
+	 * @param bound
+	 *            EXACT, LOWER_BOUND or UPPER_BOUND
+	 * @param score
+	 *            the score
+	 * @param move
+	 *            the best move (16 bit), 0 if unknown
+	 */
+	public void store(long key, int depth, int bound, int score, int move) {
+		int index = (int) key & mask;
+		long old = data[index];
+		boolean samePosition = (keys[index] ^ old) == key;
+		if (old != 0 && !samePosition && age(old) == age && depth(old) > depth) {
+			// Keep the deeper result of the current search
+			return;
+		}
+		if (move == 0 && samePosition) {
+			// Keep the best move known so far
+			move = move(old);
+		}
+		long entry = pack(depth, bound, score, move, age);
+		keys[index] = key ^ entry;
+		data[index] = entry;
+	}
+
+	private static long pack(int depth, int bound, int score, int move, int age) {
+		return (score & 0xFFFFFFFFL) | ((long) (move & 0xFFFF) << 32) | ((long) (depth & 0xFF) << 48)
+				| ((long) (bound & 0x3) << 56) | ((long) (age & 0x3F) << 58);
+	}
+
+	/**
+	 * @param entry
+	 *            a packed entry
+	 * @return the score of the entry
+	 */
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * @param entry
+	 *            a packed entry
+	 * @return the best move of the entry, 0 if unknown
+	 */
+	public static int move(long entry) {
+		return (int) (entry >>> 32) & 0xFFFF;
+	}
+
+	/**
+	 * @param entry
+	 *            a packed entry
+	 * @return the remaining depth the entry was searched with
+	 */
+	public static int depth(long entry) {
+		return (int) (entry >>> 48) & 0xFF;
+	}
+
+	/**
+	 * @param entry
+	 *            a packed entry
+	 * @return the bound type of the entry, 0 for an empty entry
+	 */
+	public static int bound(long entry) {
+		return (int) (entry >>> 56) & 0x3;
+	}
+
+	private static int age(long entry) {
+		return (int) (entry >>> 58) & 0x3F;
+	}
+}
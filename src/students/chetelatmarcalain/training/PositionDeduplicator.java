@@ -0,0 +1,51 @@
+package students.chetelatmarcalain.training;
+
+/**
+ * Recognizes positions seen before, with a fixed amount of memory: the keys
+ * are kept in a table of buckets of BUCKET_SIZE keys, and a new key replaces
+ * the oldest one of its bucket. So the positions seen recently are
+ * recognized, older ones may be forgotten and taken for new again.
+ *
+ * @author mac
+ *
+ */
+public class PositionDeduplicator {
+
+	// Keys per bucket (power of 2)
+	private static final int BUCKET_SIZE = 4;
+
+	// The keys of a bucket, the newest first
+	private final long[] keys;
+	private final int mask;
+
+	/**
+	 * C'tor.
+	 *
+	 * @param entries
+	 *            the number of keys kept, rounded up to a power of 2
+	 */
+	public PositionDeduplicator(int entries) {
+		int size = Math.max(BUCKET_SIZE, Integer.highestOneBit(Math.max(1, entries - 1)) << 1);
+		this.keys = new long[size];
+		this.mask = size - BUCKET_SIZE;
+	}
+
+	/**
+	 * Add a position.
+	 *
+	 * @param key
+	 *            the Zobrist key of the position
+	 * @return true if the position is new, false if it was seen before
+	 */
+	public boolean add(long key) {
+		// Zobrist keys are random, so their lowest bits are a good hash
+		int bucket = (int) key & mask;
+		for (int i = bucket; i < bucket + BUCKET_SIZE; i++) {
+			if (keys[i] == key)
+				return false;
+		}
+		System.arraycopy(keys, bucket, keys, bucket + 1, BUCKET_SIZE - 1);
+		keys[bucket] = key;
+		return true;
+	}
+}
@@ -0,0 +1,97 @@
+package students.chetelatmarcalain.training;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+
+/**
+ * A position sampled from a self-play game, labeled with the result of the
+ * game.
+ *
+ * @author mac
+ *
+ */
+public final class PositionSample {
+
+	/**
+	 * Result of a game won by white.
+	 */
+	public static final int WHITE_WON = 1;
+
+	/**
+	 * Result of a game won by black.
+	 */
+	public static final int BLACK_WON = -1;
+
+	/**
+	 * Result of a game without winner.
+	 */
+	public static final int NO_WINNER = 0;
+
+	/**
+	 * The Zobrist key of the position, including the player to move.
+	 */
+	public final long key;
+
+	/**
+	 * The white pawns, one bit per field.
+	 */
+	public final long white;
+
+	/**
+	 * The black pawns, one bit per field.
+	 */
+	public final long black;
+
+	/**
+	 * The player to move.
+	 */
+	public final Color mover;
+
+	/**
+	 * The result of the game: WHITE_WON, BLACK_WON or NO_WINNER.
+	 */
+	public final int result;
+
+	/**
+	 * The score of a search of the position (white's view), 0 if not searched.
+	 */
+	public final int score;
+
+	/**
+	 * C'tor.
+	 *
+	 * @param key
+	 *            the Zobrist key of the position, including the player to
+	 *            move
+	 * @param white
+	 *            the white pawns
+	 * @param black
+	 *            the black pawns
+	 * @param mover
+	 *            the player to move
+	 * @param result
+	 *            the result of the game
+	 * @param score
+	 *            the score of a search of the position
+	 */
+	public PositionSample(long key, long white, long black, Color mover, int result, int score) {
+		this.key = key;
+		this.white = white;
+		this.black = black;
+		this.mover = mover;
+		this.result = result;
+		this.score = score;
+	}
+
+	/**
+	 * The result of a game.
+	 *
+	 * @param winner
+	 *            the color of the winner, null if there is none
+	 * @return WHITE_WON, BLACK_WON or NO_WINNER
+	 */
+	public static int result(Color winner) {
+		if (winner == null)
+			return NO_WINNER;
+		return winner == Color.WHITE ? WHITE_WON : BLACK_WON;
+	}
+}
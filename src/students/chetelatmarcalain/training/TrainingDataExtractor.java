@@ -0,0 +1,236 @@
+package students.chetelatmarcalain.training;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Game;
+import ch.uzh.ifi.ddis.pai.chessim.game.History;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.RandomMoverPawnGame;
+import students.chetelatmarcalain.book.ExploringAgent;
+import students.chetelatmarcalain.game.SearchPosition;
+import students.chetelatmarcalain.search.Searcher;
+import students.chetelatmarcalain.search.TranspositionTable;
+
+/**
+ * Extracts training data for the evaluation from self-play games of the
+ * agent. The games are played in parallel; from every game, positions are
+ * sampled and labeled with the result of the game and, optionally, the score
+ * of a search to a fixed level. The samples are passed through a bounded
+ * queue to one writer, which skips positions seen before and writes the
+ * others to a {@link TrainingDataWriter}. The memory used does not grow with
+ * the number of games: the players wait while the queue is full, and the
+ * deduplication forgets old positions when its table is full.
+ *
+ * @author mac
+ *
+ */
+public class TrainingDataExtractor {
+
+	// Plies at the start of a game with random moves, see ExploringAgent
+	private static final int EXPLORATION_PLIES = 10;
+
+	// Size of the transposition table of the searches scoring the samples
+	private static final int SCORE_TABLE_MEGABYTES = 16;
+
+	// Signals the writer that all games are played
+	private static final PositionSample END = new PositionSample(0, 0, 0, Color.WHITE, 0, 0);
+
+	private final long timeLimit;
+	private final double probabilitySameMover;
+	private final double sampleRate;
+	private final int scoreLevel;
+	private final BlockingQueue<PositionSample> queue;
+
+	// The searcher of each player thread, used to score the samples
+	private final ThreadLocal<Searcher> searchers;
+
+	/**
+	 * C'tor.
+	 *
+	 * @param timeLimit
+	 *            the time per player and game in ms
+	 * @param probabilitySameMover
+	 *            the probability that the player who moved moves again
+	 * @param sampleRate
+	 *            the probability that a position of a game is sampled
+	 * @param scoreLevel
+	 *            the level of the search scoring the samples, 0 for no scores
+	 * @param queueCapacity
+	 *            the number of samples waiting for the writer at most
+	 */
+	public TrainingDataExtractor(long timeLimit, double probabilitySameMover, double sampleRate, int scoreLevel,
+			int queueCapacity) {
+		this.timeLimit = timeLimit;
+		this.probabilitySameMover = probabilitySameMover;
+		this.sampleRate = sampleRate;
+		this.scoreLevel = scoreLevel;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.searchers = ThreadLocal.withInitial(() -> {
+			Searcher searcher = new Searcher(new TranspositionTable(SCORE_TABLE_MEGABYTES));
+			searcher.setProbabilitySameMover(probabilitySameMover);
+			return searcher;
+		});
+	}
+
+	/**
+	 * Plays self-play games and writes the sampled positions. Arguments: the
+	 * output file, the number of games (default 1000), the time per player
+	 * and game in ms (default 2000), the probability that the player who moved
+	 * moves again (default 0), the probability that a position is sampled
+	 * (default 0.25), the level of the search scoring the samples (default 0:
+	 * no scores), the number of games played at the same time (default: the
+	 * number of processors), the capacity of the queue (default 65536) and the
+	 * number of positions kept for the deduplication (default 4194304, 0 to
+	 * keep duplicates).
+	 *
+	 * @param args
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		File file = new File(args.length > 0 ? args[0] : "training.data");
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		long timeLimit = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+		double probabilitySameMover = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+		double sampleRate = args.length > 4 ? Double.parseDouble(args[4]) : 0.25;
+		int scoreLevel = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+		int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+		int queueCapacity = args.length > 7 ? Integer.parseInt(args[7]) : 1 << 16;
+		int deduplication = args.length > 8 ? Integer.parseInt(args[8]) : 1 << 22;
+
+		long start = System.nanoTime();
+		TrainingDataExtractor extractor = new TrainingDataExtractor(timeLimit, probabilitySameMover, sampleRate,
+				scoreLevel, queueCapacity);
+		PositionDeduplicator deduplicator = deduplication > 0 ? new PositionDeduplicator(deduplication) : null;
+		Board board = RandomMoverPawnGame.createNewBoard();
+		try (TrainingDataWriter writer = new TrainingDataWriter(file, board.height, board.width, scoreLevel > 0)) {
+			long samples = extractor.run(games, threads, writer, deduplicator, played -> {
+				if (played % 10 == 0)
+					System.out.println(played + " of " + games + " games played");
+			});
+			System.out.println(writer.size() + " of " + samples + " sampled positions written to " + file + " in "
+					+ (System.nanoTime() - start) / 1000000 + " ms");
+		}
+	}
+
+	/**
+	 * Play the games and write their samples. The calling thread is the
+	 * writer.
+	 *
+	 * @param games
+	 *            the number of games
+	 * @param threads
+	 *            the number of games played at the same time
+	 * @param writer
+	 *            the writer of the samples
+	 * @param deduplicator
+	 *            skips positions seen before, null to write all samples
+	 * @param progress
+	 *            gets the number of games played after every game, on the
+	 *            thread which played it; null for no progress reports
+	 * @return the number of positions sampled, including the duplicates
+	 * @throws IOException
+	 *             if the samples can not be written
+	 * @throws ExecutionException
+	 *             if a game failed
+	 * @throws InterruptedException
+	 */
+	public long run(int games, int threads, TrainingDataWriter writer, PositionDeduplicator deduplicator,
+			IntConsumer progress) throws IOException, ExecutionException, InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		AtomicInteger remaining = new AtomicInteger(games);
+		List<Future<?>> results = new ArrayList<>();
+		for (int i = 0; i < games; i++) {
+			long seed = i;
+			results.add(executor.submit(() -> {
+				try {
+					playGame(seed);
+				} finally {
+					int left = remaining.decrementAndGet();
+					try {
+						if (progress != null)
+							progress.accept(games - left);
+					} finally {
+						if (left == 0)
+							queue.put(END);
+					}
+				}
+				return null;
+			}));
+		}
+		long samples = 0;
+		try {
+			if (games > 0) {
+				for (PositionSample sample = queue.take(); sample != END; sample = queue.take()) {
+					samples++;
+					if (deduplicator == null || deduplicator.add(sample.key))
+						writer.add(sample);
+				}
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			// Players waiting for a failed writer are interrupted
+			executor.shutdownNow();
+		}
+		return samples;
+	}
+
+	/**
+	 * Play a self-play game and queue its samples.
+	 *
+	 * @param seed
+	 *            the seed of the game
+	 * @throws InterruptedException
+	 */
+	private void playGame(long seed) throws InterruptedException {
+		Random random = new Random(seed);
+		Game game = new RandomMoverPawnGame(timeLimit, 0, new ExploringAgent(EXPLORATION_PLIES, random),
+				new ExploringAgent(EXPLORATION_PLIES, random), probabilitySameMover, seed);
+		Game.GameResult result = game.playGame();
+		Board initialBoard = game.getInitialBoard();
+		History history = result.getHistory();
+		int gameResult = PositionSample.result(result.getWinnersColour());
+
+		SearchPosition position = new SearchPosition(initialBoard);
+		for (int i = 0; i < history.size(); i++) {
+			Move move = history.getMove(i);
+			Color mover = history.getMover(i);
+			if (random.nextDouble() < sampleRate) {
+				int score = scoreLevel > 0 ? score(position, mover) : 0;
+				queue.put(new PositionSample(position.key(mover), position.pawns(Color.WHITE),
+						position.pawns(Color.BLACK), mover, gameResult, score));
+			}
+			position.make(SearchPosition.move(initialBoard.index(move.from), initialBoard.index(move.to)));
+		}
+	}
+
+	/**
+	 * The score of a search of a position to the fixed level.
+	 *
+	 * @param position
+	 *            the position
+	 * @param player
+	 *            the player to move
+	 * @return the score
+	 */
+	private int score(SearchPosition position, Color player) {
+		Searcher searcher = searchers.get();
+		searcher.start(Searcher.noDeadline(System.nanoTime()));
+		return searcher.search(position, 0, scoreLevel, player, Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+}
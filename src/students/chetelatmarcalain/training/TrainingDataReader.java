@@ -0,0 +1,201 @@
+package students.chetelatmarcalain.training;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+
+/**
+ * Read-only access to the positions written by {@link TrainingDataWriter}.
+ * The file is mapped into memory, in parts of whole blocks if it is large,
+ * and every position (row) can be read directly.
+ *
+ * @author mac
+ *
+ */
+public class TrainingDataReader {
+
+	// Largest part of the file mapped at once
+	private static final long MAP_SIZE = 1L << 30;
+
+	private final MappedByteBuffer[] parts;
+	private final int blocksPerPart;
+	private final int blockRows;
+	private final long blockBytes;
+	private final long size;
+	private final int height;
+	private final int width;
+	private final boolean scores;
+
+	private TrainingDataReader(MappedByteBuffer[] parts, int blocksPerPart, int blockRows, long blockBytes, long size,
+			int height, int width, boolean scores) {
+		this.parts = parts;
+		this.blocksPerPart = blocksPerPart;
+		this.blockRows = blockRows;
+		this.blockBytes = blockBytes;
+		this.size = size;
+		this.height = height;
+		this.width = width;
+		this.scores = scores;
+	}
+
+	/**
+	 * Maps a file into memory.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the reader
+	 * @throws IOException
+	 *             if the file can not be read, is no training data or
+	 *             incomplete
+	 */
+	public static TrainingDataReader open(File file) throws IOException {
+		try (RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel()) {
+			long length = channel.size();
+			if (length < TrainingDataWriter.HEADER_SIZE) {
+				throw new IOException(file + " is no training data");
+			}
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TrainingDataWriter.HEADER_SIZE);
+			if (header.getInt(0) != TrainingDataWriter.MAGIC || header.getInt(4) != TrainingDataWriter.VERSION) {
+				throw new IOException(file + " is no training data");
+			}
+			boolean scores = (header.get(10) & TrainingDataWriter.SCORES) != 0;
+			int blockRows = header.getInt(12);
+			long blockBytes = 4 + (long) blockRows * rowBytes(scores);
+			if (blockRows <= 0 || blockBytes > MAP_SIZE) {
+				throw new IOException("Unexpected block size in " + file);
+			}
+
+			long data = length - TrainingDataWriter.HEADER_SIZE;
+			long blocks = (data + blockBytes - 1) / blockBytes;
+			int blocksPerPart = (int) (MAP_SIZE / blockBytes);
+			MappedByteBuffer[] parts = new MappedByteBuffer[(int) ((blocks + blocksPerPart - 1) / blocksPerPart)];
+			for (int i = 0; i < parts.length; i++) {
+				long start = TrainingDataWriter.HEADER_SIZE + i * blocksPerPart * blockBytes;
+				parts[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+						Math.min(length - start, blocksPerPart * blockBytes));
+			}
+
+			// All blocks but the last one are full
+			long size = 0;
+			if (blocks > 0) {
+				long lastBytes = data - (blocks - 1) * blockBytes;
+				MappedByteBuffer last = parts[parts.length - 1];
+				int lastRows = lastBytes < 4 ? -1 : last.getInt((int) ((blocks - 1) % blocksPerPart * blockBytes));
+				if (lastRows <= 0 || lastRows > blockRows || lastBytes != 4 + (long) lastRows * rowBytes(scores)) {
+					throw new IOException("Incomplete last block in " + file);
+				}
+				size = (blocks - 1) * blockRows + lastRows;
+			}
+			return new TrainingDataReader(parts, blocksPerPart, blockRows, blockBytes, size, header.get(8),
+					header.get(9), scores);
+		}
+	}
+
+	private static int rowBytes(boolean scores) {
+		return 8 + 8 + 1 + 1 + (scores ? 2 : 0);
+	}
+
+	/**
+	 * @return the number of positions
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @return the height of the board of the positions
+	 */
+	public int height() {
+		return height;
+	}
+
+	/**
+	 * @return the width of the board of the positions
+	 */
+	public int width() {
+		return width;
+	}
+
+	/**
+	 * @return true if the positions have scores
+	 */
+	public boolean hasScores() {
+		return scores;
+	}
+
+	/**
+	 * @param row
+	 *            the index of the position
+	 * @return the white pawns, one bit per field
+	 */
+	public long white(long row) {
+		return part(row).getLong(column(row, 0, 8));
+	}
+
+	/**
+	 * @param row
+	 *            the index of the position
+	 * @return the black pawns, one bit per field
+	 */
+	public long black(long row) {
+		return part(row).getLong(column(row, 8, 8));
+	}
+
+	/**
+	 * @param row
+	 *            the index of the position
+	 * @return the player to move
+	 */
+	public Color mover(long row) {
+		return part(row).get(column(row, 16, 1)) == 0 ? Color.WHITE : Color.BLACK;
+	}
+
+	/**
+	 * @param row
+	 *            the index of the position
+	 * @return the result of the game, see {@link PositionSample}
+	 */
+	public int result(long row) {
+		return part(row).get(column(row, 17, 1));
+	}
+
+	/**
+	 * @param row
+	 *            the index of the position
+	 * @return the score of a search of the position (white's view), 0 if the
+	 *         file has no scores
+	 */
+	public int score(long row) {
+		if (!scores)
+			return 0;
+		return part(row).getShort(column(row, 18, 2));
+	}
+
+	private MappedByteBuffer part(long row) {
+		if (row < 0 || row >= size)
+			throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+		return parts[(int) (row / blockRows / blocksPerPart)];
+	}
+
+	/**
+	 * The position of a value in its part of the file.
+	 *
+	 * @param row
+	 *            the index of the position
+	 * @param columnOffset
+	 *            the bytes per row of the columns before the column
+	 * @param valueBytes
+	 *            the bytes of a value of the column
+	 * @return the position
+	 */
+	private int column(long row, int columnOffset, int valueBytes) {
+		long block = row / blockRows;
+		int blockStart = (int) (block % blocksPerPart * blockBytes);
+		int rows = block == (size - 1) / blockRows ? (int) (size - block * blockRows) : blockRows;
+		return blockStart + 4 + columnOffset * rows + (int) (row % blockRows) * valueBytes;
+	}
+}
@@ -0,0 +1,137 @@
+package students.chetelatmarcalain.training;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+
+/**
+ * Writes sampled positions into a columnar file, which can be read with
+ * {@link TrainingDataReader}. The positions are collected in blocks of a
+ * fixed number of rows, and every block is written column by column, so a
+ * reader can scan single columns. Only the current block is kept in memory.
+ * A writer is not thread-safe.
+ *
+ * File format (big endian): a header (magic, version, height and width of
+ * the board, flags, rows per block) followed by the blocks. All blocks but
+ * the last one are full. A block starts with its number of rows (4 bytes),
+ * followed by the columns: the white pawns (8 bytes per row), the black pawns
+ * (8 bytes), the player to move (1 byte, 0 for white, 1 for black), the
+ * result of the game (1 byte, see {@link PositionSample}) and, if the flag
+ * SCORES is set, the score of a search (2 bytes).
+ *
+ * @author mac
+ *
+ */
+public class TrainingDataWriter implements Closeable {
+
+	static final int MAGIC = 0x4D414344;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+
+	// Flag of files with a score column
+	static final int SCORES = 1;
+
+	// Rows per block
+	static final int BLOCK_ROWS = 4096;
+
+	private final DataOutputStream out;
+	private final boolean scores;
+
+	// Columns of the current block
+	private final long[] white = new long[BLOCK_ROWS];
+	private final long[] black = new long[BLOCK_ROWS];
+	private final byte[] movers = new byte[BLOCK_ROWS];
+	private final byte[] results = new byte[BLOCK_ROWS];
+	private final short[] scoreColumn = new short[BLOCK_ROWS];
+	private int blockSize;
+
+	private long size;
+
+	/**
+	 * C'tor, creates the file.
+	 *
+	 * @param file
+	 *            the file, replaced if it exists
+	 * @param height
+	 *            the height of the board of the positions
+	 * @param width
+	 *            the width of the board of the positions
+	 * @param scores
+	 *            true to write the scores of the positions
+	 * @throws IOException
+	 */
+	public TrainingDataWriter(File file, int height, int width, boolean scores) throws IOException {
+		this.scores = scores;
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeByte(height);
+		out.writeByte(width);
+		out.writeByte(scores ? SCORES : 0);
+		out.writeByte(0);
+		out.writeInt(BLOCK_ROWS);
+	}
+
+	/**
+	 * Add a position. It is written when its block is full or the writer is
+	 * closed.
+	 *
+	 * @param sample
+	 *            the position
+	 * @throws IOException
+	 */
+	public void add(PositionSample sample) throws IOException {
+		white[blockSize] = sample.white;
+		black[blockSize] = sample.black;
+		movers[blockSize] = (byte) (sample.mover == Color.WHITE ? 0 : 1);
+		results[blockSize] = (byte) sample.result;
+		scoreColumn[blockSize] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample.score));
+		blockSize++;
+		size++;
+		if (blockSize == BLOCK_ROWS)
+			writeBlock();
+	}
+
+	/**
+	 * @return the number of positions added
+	 */
+	public long size() {
+		return size;
+	}
+
+	private void writeBlock() throws IOException {
+		out.writeInt(blockSize);
+		for (int i = 0; i < blockSize; i++) {
+			out.writeLong(white[i]);
+		}
+		for (int i = 0; i < blockSize; i++) {
+			out.writeLong(black[i]);
+		}
+		out.write(movers, 0, blockSize);
+		out.write(results, 0, blockSize);
+		if (scores) {
+			for (int i = 0; i < blockSize; i++) {
+				out.writeShort(scoreColumn[i]);
+			}
+		}
+		blockSize = 0;
+	}
+
+	/**
+	 * Write the last block and close the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (blockSize > 0)
+				writeBlock();
+		} finally {
+			out.close();
+		}
+	}
+}
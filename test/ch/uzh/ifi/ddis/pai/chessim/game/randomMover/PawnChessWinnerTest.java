@@ -0,0 +1,67 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.game.randomMover;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
+import ch.uzh.ifi.ddis.pai.chessim.game.History;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+
+public class PawnChessWinnerTest {
+	
+	private static final int GAMES = 200;
+
+	/**
+	 * Plays random games and checks after every move that the winner found from the last move
+	 * is the one found on the whole board.
+	 */
+	@Test
+	public void winnerAfterMoveAgreesWithWinner(){
+		PawnChessWinner rules = new PawnChessWinner();
+		Random random = new Random(42);
+		for(int game = 0; game < GAMES; game++){
+			Board board = RandomMoverPawnGame.createNewBoard();
+			History history = new History();
+			Color mover = random.nextBoolean() ? Color.WHITE : Color.BLACK;
+			Move lastMove = null;
+			while(true){
+				Color winner = rules.winner(board, history, mover);
+				assertEquals("game " + game + " after " + history.size() + " moves", winner, 
+						rules.winnerAfterMove(board, history, lastMove, mover));
+				if(winner != null){
+					break;
+				}
+				List<Move> moves = new ArrayList<>();
+				for(Figure figure : board.figures(mover).values()){
+					moves.addAll(figure.moves(board));
+				}
+				lastMove = moves.get(random.nextInt(moves.size()));
+				board = board.applyMove(lastMove);
+				history = history.additionalMove(lastMove, mover);
+				// Sometimes the same player moves again
+				if(random.nextDouble() >= 0.2){
+					mover = mover.getOtherColor();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * This file is part of the chess assignment of the 
+ * "Practical Artificial Intelligence" class at University of Zurich.
+ *
+ * @copyright:
+ *	 Dynamic and Distributed Information Systems Group
+ * 	 Departement of Informatics, University of Zurich
+ * @author:
+ *   Michael Weiss, mail@mweiss.ch
+ * @year: 
+ *   2016
+ */
+package ch.uzh.ifi.ddis.pai.chessim.perft;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.randomMover.RandomMoverPawnGame;
+
+/**
+ * Checks the move generators against the known perft numbers of the start position ({@link Perft#START_POSITION}).
+ */
+public class PerftTest {
+	
+	private static final int DEPTH = 6;
+	private static final int CACHE_MEGABYTES = 16;
+
+	@Test
+	public void referenceGeneratorCountsStartPosition(){
+		assertStartPosition(new ReferenceGenerator(), null);
+		assertStartPosition(new ReferenceGenerator(), new PerftCache(CACHE_MEGABYTES));
+	}
+
+	@Test
+	public void bitboardGeneratorCountsStartPosition(){
+		assertStartPosition(new BitboardGenerator(), null);
+		assertStartPosition(new BitboardGenerator(), new PerftCache(CACHE_MEGABYTES));
+	}
+	
+	private void assertStartPosition(MoveGenerator generator, PerftCache cache){
+		Board board = RandomMoverPawnGame.createNewBoard();
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		try{
+			Perft perft = new Perft(generator, cache, pool);
+			for(int depth = 1; depth <= DEPTH; depth++){
+				assertEquals(generator + " generator, " + (cache == null ? "no cache" : "cache") + ", depth " + depth, 
+						Perft.START_POSITION[depth], perft.perft(board, Color.WHITE, depth));
+			}
+		}finally{
+			pool.shutdown();
+		}
+	}
+}
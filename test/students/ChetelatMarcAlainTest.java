@@ -0,0 +1,65 @@
+package students;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.AgentContext;
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Coordinates;
+import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
+import ch.uzh.ifi.ddis.pai.chessim.game.History;
+import ch.uzh.ifi.ddis.pai.chessim.game.Move;
+import ch.uzh.ifi.ddis.pai.chessim.game.Pawn;
+
+/**
+ * Tests of the move choice of {@link ChetelatMarcAlain}.
+ *
+ * @author mac
+ *
+ */
+public class ChetelatMarcAlainTest {
+
+	/**
+	 * White can promote at once, or capture a pawn which wins the pawn race
+	 * according to the evaluation. The promotion must be played.
+	 */
+	@Test
+	public void whitePlaysImmediateWin() {
+		Map<Coordinates, Figure> figures = new HashMap<>();
+		figures.put(Coordinates.of(6, 0), new Pawn(Color.WHITE));
+		figures.put(Coordinates.of(3, 3), new Pawn(Color.WHITE));
+		figures.put(Coordinates.of(4, 4), new Pawn(Color.BLACK));
+		figures.put(Coordinates.of(7, 6), new Pawn(Color.BLACK));
+		figures.put(Coordinates.of(7, 7), new Pawn(Color.BLACK));
+
+		Move move = nextMove(Color.WHITE, new Board(8, 8, figures));
+		assertEquals(new Move(Coordinates.of(6, 0), Coordinates.of(7, 0)), move);
+	}
+
+	/**
+	 * The same position for black.
+	 */
+	@Test
+	public void blackPlaysImmediateWin() {
+		Map<Coordinates, Figure> figures = new HashMap<>();
+		figures.put(Coordinates.of(1, 0), new Pawn(Color.BLACK));
+		figures.put(Coordinates.of(4, 3), new Pawn(Color.BLACK));
+		figures.put(Coordinates.of(3, 4), new Pawn(Color.WHITE));
+		figures.put(Coordinates.of(0, 6), new Pawn(Color.WHITE));
+		figures.put(Coordinates.of(0, 7), new Pawn(Color.WHITE));
+
+		Move move = nextMove(Color.BLACK, new Board(8, 8, figures));
+		assertEquals(new Move(Coordinates.of(1, 0), Coordinates.of(0, 0)), move);
+	}
+
+	private static Move nextMove(Color player, Board board) {
+		ChetelatMarcAlain agent = new ChetelatMarcAlain();
+		agent.gameStarted(new AgentContext(1000, 0, 0.0));
+		return agent.nextMove(player, board, new History(), 1000);
+	}
+}
@@ -0,0 +1,93 @@
+package students.chetelatmarcalain.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.ddis.pai.chessim.game.Board;
+import ch.uzh.ifi.ddis.pai.chessim.game.Color;
+import ch.uzh.ifi.ddis.pai.chessim.game.Coordinates;
+import ch.uzh.ifi.ddis.pai.chessim.game.Figure;
+import ch.uzh.ifi.ddis.pai.chessim.game.Pawn;
+import ch.uzh.ifi.ddis.pai.chessim.tablebase.Tablebase;
+import ch.uzh.ifi.ddis.pai.chessim.tablebase.TablebaseGenerator;
+import students.chetelatmarcalain.game.SearchPosition;
+
+/**
+ * Tests of the move choice of the {@link Searcher}.
+ *
+ * @author mac
+ *
+ */
+public class SearcherTest {
+
+	/**
+	 * At every fixed level, the search chooses the promotion over the
+	 * capture, although the capture wins the pawn race according to the
+	 * evaluation and is generated first.
+	 */
+	@Test
+	public void fixedLevelSearchPlaysImmediateWin() {
+		Map<Coordinates, Figure> figures = new HashMap<>();
+		figures.put(Coordinates.of(6, 0), new Pawn(Color.WHITE));
+		figures.put(Coordinates.of(3, 3), new Pawn(Color.WHITE));
+		figures.put(Coordinates.of(4, 4), new Pawn(Color.BLACK));
+		figures.put(Coordinates.of(7, 6), new Pawn(Color.BLACK));
+		figures.put(Coordinates.of(7, 7), new Pawn(Color.BLACK));
+		Board board = new Board(8, 8, figures);
+		int promotion = SearchPosition.move(board.index(Coordinates.of(6, 0)), board.index(Coordinates.of(7, 0)));
+
+		for (int level = 1; level <= 4; level++) {
+			Searcher searcher = new Searcher(new TranspositionTable(1));
+			searcher.start(Searcher.noDeadline(System.nanoTime()));
+			int score = searcher.search(new SearchPosition(board), 0, level, Color.WHITE, Integer.MIN_VALUE,
+					Integer.MAX_VALUE);
+			assertEquals("level " + level, promotion, searcher.rootBestMove());
+			assertTrue("level " + level, score > Evaluation.MAX_SCORE);
+		}
+	}
+
+	/**
+	 * A tablebase win is scored like a game end, by its distance, but below
+	 * the game end the search reaches itself and above every evaluation.
+	 */
+	@Test
+	public void tablebaseWinScoresBetweenEvaluationAndGameEnd() throws IOException {
+		Map<Coordinates, Figure> figures = new HashMap<>();
+		figures.put(Coordinates.of(1, 0), new Pawn(Color.WHITE));
+		figures.put(Coordinates.of(6, 7), new Pawn(Color.BLACK));
+		Board board = new Board(8, 8, figures);
+
+		Searcher searcher = new Searcher(new TranspositionTable(1));
+		searcher.start(Searcher.noDeadline(System.nanoTime()));
+		int gameEnd = searcher.search(new SearchPosition(board), 0, 12, Color.WHITE, Integer.MIN_VALUE,
+				Integer.MAX_VALUE);
+
+		File directory = Files.createTempDirectory("tablebase").toFile();
+		try {
+			TablebaseGenerator generator = new TablebaseGenerator(8, 8, 1);
+			generator.solve();
+			generator.write(directory);
+			searcher = new Searcher(new TranspositionTable(1));
+			searcher.setTablebase(Tablebase.open(directory, 8, 8));
+			searcher.start(Searcher.noDeadline(System.nanoTime()));
+			int tablebaseWin = searcher.search(new SearchPosition(board), 0, 2, Color.WHITE, Integer.MIN_VALUE,
+					Integer.MAX_VALUE);
+
+			assertTrue("tablebase win " + tablebaseWin, tablebaseWin > Evaluation.MAX_SCORE);
+			assertTrue("tablebase win " + tablebaseWin + ", game end " + gameEnd, tablebaseWin < gameEnd);
+		} finally {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+}